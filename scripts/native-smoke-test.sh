@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Compila el ejecutable nativo (GraalVM) y lo compara con el jar en la JVM:
+#   - prueba de humo: crear cafe, cliente y pedido y leer el pedido
+#   - tiempo de arranque ("Started ... in") y memoria residente (VmRSS) tras la prueba
+#
+# Requiere GraalVM 21 (JAVA_HOME o GRAALVM_HOME) y la base de datos de application.properties
+# (o SPRING_DATASOURCE_URL/USERNAME/PASSWORD).
+# Uso: scripts/native-smoke-test.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PORT="${PORT:-8080}"
+BASE="http://localhost:${PORT}"
+WORK="target/native-smoke"
+
+./mvnw -q -B -Pnative native:compile -DskipTests
+./mvnw -q -B package -DskipTests
+JAR="$(ls target/coffee-*.jar | grep -v original | head -1)"
+rm -rf "$WORK" && mkdir -p "$WORK"
+
+wait_ready() { # pid
+  for _ in $(seq 1 300); do
+    curl -sf "$BASE/actuator/health" >/dev/null && return 0
+    kill -0 "$1" 2>/dev/null || return 1
+    sleep 0.1
+  done
+  return 1
+}
+
+smoke() { # modo
+  local run coffee customer order
+  run="$1-$(date +%s%N)"
+  coffee=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Smoke ${run}\",\"price\":2.5,\"imageUrl\":\"https://cdn.cafe.com/smoke.jpg\"}" \
+    "$BASE/api/coffees" | sed -E 's/.*"id":([0-9]+).*/\1/')
+  customer=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Smoke\",\"email\":\"smoke-${run}@cafe.com\"}" \
+    "$BASE/api/customers" | sed -E 's/.*"id":([0-9]+).*/\1/')
+  order=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"customer\":{\"id\":${customer}},\"items\":[{\"coffee\":{\"id\":${coffee}},\"quantity\":2}]}" \
+    "$BASE/api/orders" | sed -E 's/^\{"id":([0-9]+).*/\1/')
+  curl -sf "$BASE/api/orders/${order}" | grep -q "Smoke ${run}"
+  curl -sf "$BASE/api/coffees/search?q=smoke" >/dev/null
+}
+
+run_mode() { # modo, comando...
+  local mode="$1"; shift
+  local log="$WORK/$mode.log"
+  "$@" --server.port="$PORT" >"$log" 2>&1 &
+  local pid=$!
+  if ! wait_ready "$pid"; then
+    echo "$mode: no arranco (ver $log)" >&2
+    kill "$pid" 2>/dev/null || true
+    exit 1
+  fi
+  smoke "$mode"
+  local started rss
+  started=$(grep -oE 'Started CoffeeApplication in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+' | head -1)
+  rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+  kill "$pid" && wait "$pid" 2>/dev/null || true
+  printf '%-8s arranque=%ss rss=%sMB smoke=OK\n' "$mode" "$started" "$((rss / 1024))"
+}
+
+run_mode native ./target/coffee --spring.profiles.active=prod
+run_mode jvm java -jar "$JAR" --spring.profiles.active=prod
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Mide el arranque y el tiempo hasta el primer pedido en cada modo de ejecucion:
+#   default       java -jar (perfil por defecto)
+#   prod          perfil prod (lazy-init, sin validacion de esquema)
+#   prod-cds      perfil prod + archivo CDS (Class Data Sharing)
+#   prod-cds-aot  perfil prod + CDS + codigo generado por Spring AOT
+#
+# Requiere la base de datos de application.properties (o SPRING_DATASOURCE_URL/USERNAME/PASSWORD).
+# Uso: scripts/startup-benchmark.sh [repeticiones]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-3}"
+PORT="${PORT:-8080}"
+BASE="http://localhost:${PORT}"
+WORK="target/startup"
+REPORT="target/startup-report.csv"
+
+./mvnw -q -B -Paot package -DskipTests
+JAR="$(ls target/coffee-*.jar | grep -v original | head -1)"
+
+# CDS no puede archivar clases de jars anidados: se descomprime el jar y se arranca con classpath plano
+rm -rf "$WORK" && mkdir -p "$WORK/app"
+(cd "$WORK/app" && unzip -q "../../../$JAR")
+CLASSPATH="BOOT-INF/classes:$(ls "$WORK"/app/BOOT-INF/lib/*.jar | sed "s|$WORK/app/||" | paste -sd: -)"
+MAIN="com.gammatech.coffee.CoffeeApplication"
+
+now_ms() { date +%s%3N; }
+
+launch() { # modo, log
+  local mode="$1" log="$2"
+  local opts=(-Dserver.port="$PORT")
+  case "$mode" in
+    default) ;;
+    prod) opts+=(-Dspring.profiles.active=prod) ;;
+    prod-cds) opts+=(-Dspring.profiles.active=prod -XX:SharedArchiveFile=prod.jsa) ;;
+    prod-cds-aot) opts+=(-Dspring.profiles.active=prod -Dspring.aot.enabled=true -XX:SharedArchiveFile=prod-aot.jsa) ;;
+  esac
+  (cd "$WORK/app" && exec java "${opts[@]}" -cp "$CLASSPATH" "$MAIN" >"../$log" 2>&1) &
+  echo $!
+}
+
+train_cds() { # archivo, opciones extra
+  local archive="$1"; shift
+  (cd "$WORK/app" && java -XX:ArchiveClassesAtExit="$archive" -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active=prod "$@" -cp "$CLASSPATH" "$MAIN" >/dev/null 2>&1) || true
+}
+
+first_order() { # espera a que la API responda y crea cafe, cliente y pedido
+  local suffix="$1"
+  until curl -sf -o /dev/null -X POST "$BASE/api/coffees" -H 'Content-Type: application/json' \
+      -d "{\"name\":\"bench-$suffix\",\"price\":1.5,\"imageUrl\":\"x.jpg\"}" 2>/dev/null; do
+    sleep 0.05
+  done
+  local coffee customer
+  coffee=$(curl -sf "$BASE/api/coffees/search?q=bench-$suffix" | sed -E 's/.*"id":([0-9]+).*/\1/')
+  customer=$(curl -sf -X POST "$BASE/api/customers" -H 'Content-Type: application/json' \
+      -d "{\"name\":\"bench\",\"email\":\"bench-$suffix@cafe.com\"}" | sed -E 's/.*"id":([0-9]+).*/\1/')
+  curl -sf -o /dev/null -X POST "$BASE/api/orders" -H 'Content-Type: application/json' \
+      -d "{\"customer\":{\"id\":$customer},\"items\":[{\"coffee\":{\"id\":$coffee},\"quantity\":1}]}"
+}
+
+train_cds prod.jsa
+train_cds prod-aot.jsa -Dspring.aot.enabled=true
+
+echo "mode,run,started_s,first_order_ms" > "$REPORT"
+for mode in default prod prod-cds prod-cds-aot; do
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    pid=$(launch "$mode" "$mode-$run.log")
+    first_order "$mode-$run-$start"
+    elapsed=$(( $(now_ms) - start ))
+    started=$(grep -oE 'Started CoffeeApplication in [0-9.]+' "$WORK/$mode-$run.log" | awk '{print $4}')
+    echo "$mode,$run,$started,$elapsed" | tee -a "$REPORT"
+    kill "$pid" 2>/dev/null || true
+    while kill -0 "$pid" 2>/dev/null; do sleep 0.1; done
+  done
+done
+
+echo
+echo "Medias por modo:"
+awk -F, 'NR > 1 { s[$1] += $3; f[$1] += $4; n[$1]++ }
+  END { for (m in s) printf "  %-13s arranque %.2f s   primer pedido %d ms\n", m, s[m] / n[m], f[m] / n[m] }' "$REPORT"
@@ -2,9 +2,11 @@ package com.gammatech.coffee;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CoffeeApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,69 @@
+package com.gammatech.coffee.archive;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.gammatech.coffee.models.OrderStatus;
+
+// Archivado de pedidos terminados (coffee.archive.*)
+@ConfigurationProperties(prefix = "coffee.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    // estados finales que se pueden archivar
+    private Set<OrderStatus> statuses = EnumSet.of(OrderStatus.DELIVERED);
+
+    // antiguedad minima (desde dateOrder) para archivar un pedido
+    private Duration olderThan = Duration.ofDays(30);
+
+    // pedidos movidos por transaccion
+    private int batchSize = 200;
+
+    // maximo de lotes por ejecucion, para no ocupar la base de datos demasiado tiempo
+    private int maxBatchesPerRun = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<OrderStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<OrderStatus> statuses) {
+        OrderStatus.requireTerminal(statuses);
+        this.statuses = statuses;
+    }
+
+    public Duration getOlderThan() {
+        return olderThan;
+    }
+
+    public void setOlderThan(Duration olderThan) {
+        this.olderThan = olderThan;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gammatech.coffee.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+
+/*
+ * Serializa las lineas de un pedido archivado en JSON compacto con claves de una letra:
+ * [{"c":1,"n":"Espresso","p":1.5,"q":2,"s":3.0}]
+ * Se guarda el nombre y precio del cafe en el momento del pedido.
+ */
+@Component
+public class ArchivedItemsCodec {
+
+    private static final TypeReference<List<ArchivedItem>> ITEMS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public ArchivedItemsCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String encode(List<OrderItem> items) {
+        List<ArchivedItem> archived = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            Coffee coffee = item.getCoffee();
+            archived.add(new ArchivedItem(coffee.getId(), coffee.getName(), coffee.getPrice(), item.getQuantity(),
+                    item.getSubtotal()));
+        }
+        try {
+            return objectMapper.writeValueAsString(archived);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudieron serializar las lineas del pedido", ex);
+        }
+    }
+
+    public List<OrderItem> decode(String json, Order order) {
+        List<ArchivedItem> archived;
+        try {
+            archived = objectMapper.readValue(json, ITEMS);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Lineas de pedido archivado corruptas: " + order.getId(), ex);
+        }
+        List<OrderItem> items = new ArrayList<>(archived.size());
+        for (ArchivedItem item : archived) {
+            Coffee coffee = new Coffee(item.n(), item.p(), null);
+            coffee.setId(item.c());
+            OrderItem orderItem = new OrderItem(order, coffee, item.q());
+            orderItem.setSubtotal(item.s());
+            items.add(orderItem);
+        }
+        return items;
+    }
+
+    record ArchivedItem(Long c, String n, Double p, int q, double s) {
+    }
+}
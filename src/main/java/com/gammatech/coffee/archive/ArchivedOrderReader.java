@@ -0,0 +1,55 @@
+package com.gammatech.coffee.archive;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.gammatech.coffee.models.ArchivedOrder;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.repository.ArchivedOrderRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+
+// Reconstruye pedidos del archivo con la misma forma que los de la tabla orders (solo lectura)
+@Component
+public class ArchivedOrderReader {
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final CustomerRepository customerRepository;
+    private final ArchivedItemsCodec codec;
+
+    public ArchivedOrderReader(ArchivedOrderRepository archivedOrderRepository, CustomerRepository customerRepository,
+            ArchivedItemsCodec codec) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.customerRepository = customerRepository;
+        this.codec = codec;
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        return archivedOrderRepository.findById(orderId)
+                .map(archived -> toOrder(archived, customerRepository.findById(archived.getCustomerId())
+                        .orElseGet(() -> customerStub(archived.getCustomerId()))));
+    }
+
+    public List<Order> findAllByCustomer(Customer customer) {
+        return archivedOrderRepository.findAllByCustomerId(customer.getId()).stream()
+                .map(archived -> toOrder(archived, customer))
+                .toList();
+    }
+
+    private Order toOrder(ArchivedOrder archived, Customer customer) {
+        Order order = new Order(customer, archived.getDateOrder(), null);
+        order.setId(archived.getId());
+        order.setOrderStatus(archived.getOrderStatus());
+        order.setTotal(archived.getTotal());
+        order.setItems(codec.decode(archived.getItems(), order));
+        return order;
+    }
+
+    private static Customer customerStub(Long customerId) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return customer;
+    }
+}
@@ -0,0 +1,110 @@
+package com.gammatech.coffee.archive;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gammatech.coffee.models.ArchivedOrder;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.ArchivedOrderRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Mueve los pedidos en estado final mas antiguos que coffee.archive.older-than a orders_archive.
+ * Cada lote va en su propia transaccion corta (insert en el archivo + delete en orders/order_items),
+ * de modo que nunca se bloquea la tabla caliente durante mucho tiempo. Con sharding se recorre cada shard.
+ * Nunca es lazy: con spring.main.lazy-initialization no se crearia y @Scheduled no se registraria.
+ */
+@Component
+@Lazy(false)
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final ArchivedItemsCodec codec;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public OrderArchiver(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+            OrderViewRepository orderViewRepository, ArchivedItemsCodec codec, ArchiveProperties properties, PlatformTransactionManager transactionManager,
+            ShardRouter shardRouter) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.codec = codec;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @Scheduled(initialDelayString = "${coffee.archive.initial-delay:PT1M}", fixedDelayString = "${coffee.archive.interval:PT10M}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            int archived = archiveExpiredOrders();
+            if (archived > 0) {
+                log.info("Archivados {} pedidos", archived);
+            }
+        }
+    }
+
+    // devuelve el numero de pedidos archivados en esta ejecucion
+    public int archiveExpiredOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getOlderThan());
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            total += shardRouter.onShard(shard, () -> archiveShard(cutoff));
+        }
+        return total;
+    }
+
+    private int archiveShard(LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+            if (moved < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        // un pedido archivado ya no se puede cambiar ni reclamar
+        OrderStatus.requireTerminal(properties.getStatuses());
+        List<Long> ids = orderRepository.findIdsToArchive(properties.getStatuses(), cutoff,
+                PageRequest.of(0, properties.getBatchSize()));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> archived = new ArrayList<>(ids.size());
+        for (Order order : orderRepository.findAllByIdIn(ids)) {
+            archived.add(new ArchivedOrder(order.getId(), order.getCustomer().getId(), order.getDateOrder(),
+                    order.getOrderStatus(), order.getTotal(), codec.encode(order.getItems()), now));
+        }
+        archivedOrderRepository.saveAll(archived);
+        archivedOrderRepository.flush();
+        orderRepository.deleteItemsByOrderIds(ids);
+        orderRepository.deleteByIds(ids);
+        // los archivados se leen desde orders_archive
+        orderViewRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.gammatech.coffee.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Formatos binarios negociados por Accept / Content-Type:
+ *   application/cbor               (RFC 8949, hay clientes en casi cualquier lenguaje)
+ *   application/x-jackson-smile    (mas compacto: reutiliza nombres de campo y cadenas repetidas)
+ * Los mappers se copian del de JSON, asi que el esquema (nombres de campo, fechas ISO, nulos omitidos) es el mismo.
+ * Spring Boot coloca estos conversores en el sitio de los suyos por defecto, detras del de JSON,
+ * por lo que JSON sigue siendo la respuesta cuando el cliente no pide otra cosa.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.gammatech.coffee.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonConfig {
+
+    // Blackbird sustituye la reflexion de getters/setters por lambdas generadas (LambdaMetafactory)
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
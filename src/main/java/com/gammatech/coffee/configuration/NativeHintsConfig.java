@@ -0,0 +1,76 @@
+package com.gammatech.coffee.configuration;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.gammatech.coffee.archive.ArchivedItemsCodec;
+import com.gammatech.coffee.configuration.NativeHintsConfig.CoffeeRuntimeHints;
+import com.gammatech.coffee.models.ArchivedOrder;
+import com.gammatech.coffee.models.BulkStatusRequest;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.CoffeeSale;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderDocument;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.OrderView;
+import com.gammatech.coffee.models.PendingOrder;
+import com.gammatech.coffee.models.PurgeRequest;
+import com.gammatech.coffee.responses.BulkStatusResult;
+import com.gammatech.coffee.responses.CoffeePageResponse;
+import com.gammatech.coffee.responses.CustomerPageResponse;
+import com.gammatech.coffee.responses.ErrorResponse;
+import com.gammatech.coffee.responses.ImportReport;
+import com.gammatech.coffee.responses.PurgeResult;
+import com.gammatech.coffee.responses.StationStatus;
+import com.gammatech.coffee.responses.TrendingCoffee;
+import com.gammatech.coffee.responses.TrendingCoffeesResponse;
+
+/*
+ * Pistas para la imagen nativa de GraalVM (perfil de Maven "native").
+ * Spring AOT ya cubre los beans y los repositorios; aqui se registra lo que se resuelve por reflexion
+ * en tiempo de ejecucion: entidades y DTOs que Jackson (de)serializa, incluidas las anotaciones
+ * @JsonManagedReference/@JsonBackReference, los modelos de springdoc de SwaggerConfig y las migraciones Flyway.
+ */
+@Configuration
+@ImportRuntimeHints(CoffeeRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class CoffeeRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final MemberCategory[] BINDING = {
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.INVOKE_DECLARED_METHODS
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : new Class<?>[] { Coffee.class, Customer.class, Order.class, OrderItem.class,
+                    OrderStatus.class, ArchivedOrder.class, OrderView.class, OrderDocument.class, CoffeePageResponse.class, CustomerPageResponse.class,
+                    ErrorResponse.class, ImportReport.class, ImportReport.RowError.class, BulkStatusRequest.class,
+                    BulkStatusResult.class, PurgeRequest.class, PurgeResult.class, CoffeeSale.class,
+                    TrendingCoffee.class, TrendingCoffeesResponse.class, PendingOrder.class, StationStatus.class }) {
+                hints.reflection().registerType(type, BINDING);
+            }
+            hints.reflection().registerType(TypeReference.of(ArchivedItemsCodec.class.getName() + "$ArchivedItem"),
+                    BINDING);
+
+            // modelos de OpenAPI que construye SwaggerConfig y serializa springdoc
+            for (String type : new String[] { "io.swagger.v3.oas.models.OpenAPI", "io.swagger.v3.oas.models.info.Info",
+                    "io.swagger.v3.oas.models.info.Contact" }) {
+                hints.reflection().registerType(TypeReference.of(type), BINDING);
+            }
+
+            // Flyway busca los scripts en el classpath
+            hints.resources().registerPattern("db/migration/*.sql");
+            hints.resources().registerPattern("db/vendor/*/*.sql");
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.gammatech.coffee.configuration;
 
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 
+@Configuration
 public class SwaggerConfig {
 
     @Bean
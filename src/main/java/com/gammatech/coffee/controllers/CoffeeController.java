@@ -1,25 +1,57 @@
 package com.gammatech.coffee.controllers;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.regex.Pattern;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import com.gammatech.coffee.menu.MenuSnapshot;
 import com.gammatech.coffee.models.Coffee;
 import com.gammatech.coffee.responses.CoffeePageResponse;
+import com.gammatech.coffee.responses.ImportReport;
+import com.gammatech.coffee.responses.TrendingCoffeesResponse;
+import com.gammatech.coffee.service.CsvImportService;
 import com.gammatech.coffee.service.CoffeeService;
+import com.gammatech.coffee.trending.TrendingCoffees;
+import com.gammatech.coffee.trending.TrendingWindow;
 
 @RestController
 @RequestMapping("/api/coffees")
 @CrossOrigin(origins = "*")
 public class CoffeeController {
 
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final Pattern GZIP_REFUSED = Pattern.compile("q\\s*=\\s*0(\\.0*)?");
+
     private final CoffeeService coffeeService;
+    private final CsvImportService csvImportService;
+    private final TrendingCoffees trendingCoffees;
+    private final MenuSnapshot menuSnapshot;
 
-    public CoffeeController(CoffeeService coffeeService) {
+    public CoffeeController(CoffeeService coffeeService, CsvImportService csvImportService,
+            TrendingCoffees trendingCoffees, MenuSnapshot menuSnapshot) {
         this.coffeeService = coffeeService;
+        this.csvImportService = csvImportService;
+        this.trendingCoffees = trendingCoffees;
+        this.menuSnapshot = menuSnapshot;
     }
 
+    // JSON: los bytes ya generados de MenuSnapshot, comprimidos si el cliente acepta gzip; CBOR/Smile usan el metodo siguiente.
+    // Sin produces para que tambien atienda Accept */* (Spring prefiere el metodo sin produces en ese caso)
     @GetMapping("/all")
+    public ResponseEntity<byte[]> getMenu(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuSnapshot.all()
+                .map(menu -> snapshot(menu, acceptEncoding))
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping(value = "/all", produces = { MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE })
     public ResponseEntity<List<Coffee>> getAllCoffees() {
         List<Coffee> coffees = coffeeService.getAllCoffees();
         if (coffees.isEmpty()) {
@@ -28,17 +60,39 @@ public class CoffeeController {
         return ResponseEntity.ok(coffees);
     }
 
-    @GetMapping()
+    // JSON: las primeras paginas salen de MenuSnapshot; las demas se serializan en el momento
+    @GetMapping
+    public ResponseEntity<byte[]> getMenuPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "2") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuSnapshot.page(page, size)
+                .map(rendered -> snapshot(rendered, acceptEncoding))
+                .orElseGet(() -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(menuSnapshot.render(coffeePage(page, size))));
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE })
     public ResponseEntity<CoffeePageResponse> getCoffees(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "2") int size) {
-        Page<Coffee> coffeesPage = coffeeService.getAllPageable(page, size);
-        CoffeePageResponse coffeePageResponse = new CoffeePageResponse(
-                coffeesPage.getContent(),
-                (int) coffeesPage.getTotalElements(),
-                coffeesPage.getTotalPages(),
-                coffeesPage.getNumber());
-        return ResponseEntity.ok(coffeePageResponse);
+        return ResponseEntity.ok(coffeePage(page, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Coffee>> searchCoffees(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(coffeeService.searchCoffees(q, Math.min(limit, 50)));
+    }
+
+    // ranking en memoria de los mas vendidos: window = 15m, 1h o 1d
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingCoffeesResponse> getTrendingCoffees(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingCoffees.top(TrendingWindow.fromLabel(window), limit));
     }
 
     @GetMapping("/{id}")
@@ -53,6 +107,19 @@ public class CoffeeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCoffee);
     }
 
+    // el contenedor guarda el fichero entero (memoria o disco) antes de llamar al metodo; para ficheros grandes, text/csv
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importCoffees(@RequestParam("file") MultipartFile file) throws IOException {
+        ImportReport report = csvImportService.importCoffees(file.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
+    // el cuerpo es el CSV y se lee en streaming segun llega
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCoffeesStream(InputStream body) throws IOException {
+        return ResponseEntity.ok(csvImportService.importCoffees(body));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Coffee> updateCoffee(@PathVariable Long id, @RequestBody Coffee coffeeRequest) {
         Coffee updatedCoffee = coffeeService.updateCoffee(id, coffeeRequest);
@@ -70,4 +137,39 @@ public class CoffeeController {
         coffeeService.deleteCoffee(id);
         return ResponseEntity.ok("Café eliminado correctamente");
     }
+
+    // METODOS
+
+    private CoffeePageResponse coffeePage(int page, int size) {
+        Page<Coffee> coffeesPage = coffeeService.getAllPageable(page, size);
+        return new CoffeePageResponse(
+                coffeesPage.getContent(),
+                (int) coffeesPage.getTotalElements(),
+                coffeesPage.getTotalPages(),
+                coffeesPage.getNumber());
+    }
+
+    // Content-Encoding ya puesto: la compresion del servidor no la vuelve a aplicar
+    private static ResponseEntity<byte[]> snapshot(MenuSnapshot.Rendered rendered, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.gzip());
+        }
+        return response.body(rendered.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !GZIP_REFUSED.matcher(parts[1].trim()).matches();
+            }
+        }
+        return false;
+    }
 }
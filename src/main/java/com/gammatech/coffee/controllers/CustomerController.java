@@ -1,11 +1,17 @@
 package com.gammatech.coffee.controllers;
+import java.io.IOException;
+import java.io.InputStream;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import java.util.List;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.data.domain.Page;
 import com.gammatech.coffee.models.Customer;
 import com.gammatech.coffee.responses.CustomerPageResponse;
+import com.gammatech.coffee.responses.ImportReport;
+import com.gammatech.coffee.service.CsvImportService;
 import com.gammatech.coffee.service.CustomerService;
 
 @RestController
@@ -14,9 +20,11 @@ import com.gammatech.coffee.service.CustomerService;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CsvImportService csvImportService;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CsvImportService csvImportService) {
         this.customerService = customerService;
+        this.csvImportService = csvImportService;
     }
 
     @GetMapping("/all")
@@ -41,6 +49,13 @@ public class CustomerController {
         return ResponseEntity.ok(customerPageResponse);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<Customer>> searchCustomers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(customerService.searchCustomers(q, Math.min(limit, 50)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
         Customer customer = customerService.getCustomerById(id);
@@ -53,6 +68,19 @@ public class CustomerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // el contenedor guarda el fichero entero (memoria o disco) antes de llamar al metodo; para ficheros grandes, text/csv
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importCustomers(@RequestParam("file") MultipartFile file) throws IOException {
+        ImportReport report = csvImportService.importCustomers(file.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
+    // el cuerpo es el CSV y se lee en streaming segun llega
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importCustomersStream(InputStream body) throws IOException {
+        return ResponseEntity.ok(csvImportService.importCustomers(body));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customerRequest) {
         Customer updated = customerService.updateCustomer(id, customerRequest);
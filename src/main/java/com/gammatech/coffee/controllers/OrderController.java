@@ -1,20 +1,38 @@
 package com.gammatech.coffee.controllers;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import java.util.List;
+import com.gammatech.coffee.models.BulkStatusRequest;
 import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
 import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.PurgeRequest;
+import com.gammatech.coffee.projection.OrderViewReader;
+import com.gammatech.coffee.responses.BulkStatusResult;
+import com.gammatech.coffee.responses.PurgeResult;
+import com.gammatech.coffee.retention.OrderPurger;
+import com.gammatech.coffee.service.OrderBulkOperations;
 import com.gammatech.coffee.service.OrderService;
 
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+
     private final OrderService orderService;
+    private final OrderViewReader orderViewReader;
+    private final OrderBulkOperations orderBulkOperations;
+    private final OrderPurger orderPurger;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderViewReader orderViewReader,
+            OrderBulkOperations orderBulkOperations, OrderPurger orderPurger) {
         this.orderService = orderService;
+        this.orderViewReader = orderViewReader;
+        this.orderBulkOperations = orderBulkOperations;
+        this.orderPurger = orderPurger;
     }
 
     @GetMapping
@@ -26,13 +44,25 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    // JSON: el documento ya generado en order_view; CBOR/Smile usan el metodo siguiente.
+    // Sin produces para que tambien atienda Accept */* (Spring prefiere el metodo sin produces en ese caso)
     @GetMapping("/{id}")
+    public ResponseEntity<String> getOrderDocumentById(@PathVariable Long id) {
+        return document(orderViewReader.getOrderById(id));
+    }
+
+    @GetMapping(value = "/{id}", produces = { MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE })
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         Order order = orderService.getOrderById(id);
         return ResponseEntity.ok(order);
     }
 
     @GetMapping("/status/{status}")
+    public ResponseEntity<String> getOrderDocumentsByStatus(@PathVariable OrderStatus status) {
+        return documents(orderViewReader.getOrdersByStatus(status));
+    }
+
+    @GetMapping(value = "/status/{status}", produces = { MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE })
     public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable OrderStatus status) {
         List<Order> orders = orderService.getOrdersByStatus(status);
         if (orders.isEmpty()) {
@@ -42,6 +72,11 @@ public class OrderController {
     }
 
     @GetMapping("/customer/{customerId}")
+    public ResponseEntity<String> getOrderDocumentsByCustomer(@PathVariable Long customerId) {
+        return documents(orderViewReader.getOrdersByCustomer(customerId));
+    }
+
+    @GetMapping(value = "/customer/{customerId}", produces = { MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE })
     public ResponseEntity<List<Order>> getOrdersByCustomer(@PathVariable Long customerId) {
         List<Order> orders = orderService.getOrdersByCustomer(customerId);
         if (orders.isEmpty()) {
@@ -62,18 +97,47 @@ public class OrderController {
         return ResponseEntity.ok(orderUpdated);
     }
 
+    @PatchMapping("/{id}/items")
+    public ResponseEntity<Order> updateOrderItems(@PathVariable Long id, @RequestBody List<OrderItem> itemChanges) {
+        Order orderUpdated = orderService.updateOrderItems(id, itemChanges);
+        return ResponseEntity.ok(orderUpdated);
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
         Order orderUpdated = orderService.updateOrderStatus(id, status);
         return ResponseEntity.ok(orderUpdated);
     }
 
+    // p.ej. al cierre: {"fromStatus": "SHIPPED", "olderThan": "PT30M", "status": "DELIVERED"}
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusResult> updateOrdersStatus(@RequestBody BulkStatusRequest request) {
+        return ResponseEntity.ok(orderBulkOperations.updateStatus(request));
+    }
+
+    // borrado definitivo por estado y/o antiguedad, tambien en el archivo
+    @PostMapping("/purge")
+    public ResponseEntity<PurgeResult> purgeOrders(@RequestBody PurgeRequest request) {
+        return ResponseEntity.ok(orderPurger.purge(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
         return ResponseEntity.ok("Pedido eliminado correctamente");
     }
 
+    private static ResponseEntity<String> documents(List<String> documents) {
+        if (documents.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return document(OrderViewReader.toJsonArray(documents));
+    }
+
+    private static ResponseEntity<String> document(String json) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
 }
     
 
@@ -0,0 +1,44 @@
+package com.gammatech.coffee.controllers;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.responses.StationStatus;
+import com.gammatech.coffee.stations.StationScheduler;
+
+@RestController
+@RequestMapping("/api/stations")
+@CrossOrigin(origins = "*")
+public class StationController {
+
+    private final StationScheduler stationScheduler;
+
+    public StationController(StationScheduler stationScheduler) {
+        this.stationScheduler = stationScheduler;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StationStatus>> getStations() {
+        return ResponseEntity.ok(stationScheduler.getStations());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<StationStatus> registerStation(@PathVariable String id) {
+        return ResponseEntity.ok(stationScheduler.register(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> unregisterStation(@PathVariable String id) {
+        stationScheduler.unregister(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // long-poll: devuelve el siguiente pedido ya en PROCESSING para este puesto, o 204 si vence el timeout
+    @GetMapping("/{id}/next")
+    public DeferredResult<ResponseEntity<Order>> nextOrder(@PathVariable String id,
+            @RequestParam(required = false) Duration timeout) {
+        return stationScheduler.next(id, timeout);
+    }
+}
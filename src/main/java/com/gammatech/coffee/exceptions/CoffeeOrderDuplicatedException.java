@@ -1,7 +1,11 @@
 package com.gammatech.coffee.exceptions;
 
-public class CoffeeOrderDuplicatedException extends RuntimeException {
-    public CoffeeOrderDuplicatedException(String message) {
-        super(message);
+public class CoffeeOrderDuplicatedException extends DomainException {
+    // sin pila ni supresiones es inmutable: se puede reutilizar la misma instancia
+    public static final CoffeeOrderDuplicatedException INSTANCE =
+            new CoffeeOrderDuplicatedException("No se permiten cafes duplicados");
+
+    public CoffeeOrderDuplicatedException(String template, Object... args) {
+        super(ErrorCode.COFFEE_ORDER_DUPLICATED, template, args);
     }
 }
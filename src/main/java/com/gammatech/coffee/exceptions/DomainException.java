@@ -0,0 +1,32 @@
+package com.gammatech.coffee.exceptions;
+
+/*
+ * Base de las excepciones de negocio. No captura la pila (son errores esperados,
+ * no fallos del programa) y el mensaje se genera solo si alguien lo pide.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private final ErrorCode code;
+    private final String template;
+    private final Object[] args;
+    private String message;
+
+    protected DomainException(ErrorCode code, String template, Object... args) {
+        super(null, null, false, false);
+        this.code = code;
+        this.template = template;
+        this.args = args;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = args.length == 0 ? template : String.format(template, args);
+        }
+        return message;
+    }
+}
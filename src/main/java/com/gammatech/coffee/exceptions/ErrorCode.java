@@ -0,0 +1,40 @@
+package com.gammatech.coffee.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+// Codigos de error estables que se devuelven al cliente junto al status HTTP
+public enum ErrorCode {
+    RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND),
+    RESOURCE_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    RESOURCE_IN_USE(HttpStatus.CONFLICT),
+    DATA_CONFLICT(HttpStatus.CONFLICT),
+    COFFEE_ORDER_DUPLICATED(HttpStatus.BAD_REQUEST),
+    INVALID_PARAMETER(HttpStatus.BAD_REQUEST),
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST),
+    METHOD_NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED),
+    UNSUPPORTED_MEDIA_TYPE(HttpStatus.UNSUPPORTED_MEDIA_TYPE),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
+    SERVICE_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    // para los errores que ya traen su status (excepciones de Spring MVC)
+    public static ErrorCode of(HttpStatusCode status) {
+        for (ErrorCode code : values()) {
+            if (code.status.value() == status.value()) {
+                return code;
+            }
+        }
+        return status.is5xxServerError() ? INTERNAL_ERROR : INVALID_REQUEST;
+    }
+}
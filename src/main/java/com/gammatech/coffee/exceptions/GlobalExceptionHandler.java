@@ -1,67 +1,95 @@
 package com.gammatech.coffee.exceptions;
 
-import java.util.Map;
-
-import org.springframework.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import com.gammatech.coffee.responses.ErrorResponse;
 
+import jakarta.servlet.ServletException;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<?> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         String name = ex.getName(); // nombre del parámetro
         String value = ex.getValue() != null ? ex.getValue().toString() : "null";
         String expectedType = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "desconocido";
 
         String message = String.format("Valor inválido '%s' para el parámetro '%s'. Se esperaba un tipo %s válido.",
                 value, name, expectedType);
-        return ResponseEntity.badRequest().body(Map.of("error", message));
+        return build(ErrorCode.INVALID_PARAMETER, message);
     }
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<?> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage()));
+    // ResourceNotFound, ResourceAlreadyExists, ResourceInUse y CoffeeOrderDuplicated: el status sale del ErrorCode
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ErrorResponse> handleDomainException(DomainException ex) {
+        return build(ex.getCode(), ex.getMessage());
     }
 
-    @ExceptionHandler(ResourceAlreadyExistsException.class)
-    public ResponseEntity<?> handleResourceAlreadyExistsException(ResourceAlreadyExistsException ex) {
-        return ResponseEntity
-                .status(HttpStatus.CONFLICT)
-                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage()));
+    // una restriccion de la base de datos que las comprobaciones previas no vieron (p.ej. dos escrituras a la vez)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        log.warn("Conflicto de integridad: {}", ex.getMostSpecificCause().getMessage());
+        return build(ErrorCode.DATA_CONFLICT, "La operacion entra en conflicto con otros datos");
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<?> handleIllegalArgumentException(IllegalArgumentException ex) {
-        return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return build(ErrorCode.INVALID_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalStateException(IllegalStateException ex) {
+        return build(ErrorCode.INVALID_REQUEST, ex.getMessage());
+    }
+
+    // excepciones de Spring MVC que ya llevan su status: rutas inexistentes (NoResourceFoundException),
+    // 405, 415, parametros que faltan... Son errores del cliente: se responden sin registrar la pila
+    @ExceptionHandler({ ServletException.class, ErrorResponseException.class })
+    public ResponseEntity<ErrorResponse> handleSpringMvcException(Exception exception) {
+        if (!(exception instanceof org.springframework.web.ErrorResponse ex)) {
+            return handleGeneralException(exception);
+        }
+        HttpStatusCode status = ex.getStatusCode();
+        if (status.is5xxServerError()) {
+            log.warn("Error de Spring MVC: {}", ex.getBody().getDetail());
+        }
+        return ResponseEntity.status(status)
+                .headers(ex.getHeaders())
+                .body(new ErrorResponse(status.value(), ErrorCode.of(status), ex.getBody().getDetail()));
     }
 
-    @ExceptionHandler(CoffeeOrderDuplicatedException.class)
-    public ResponseEntity<?> handleCoffeeOrderDuplicatedException(CoffeeOrderDuplicatedException ex) {
-        return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
+    // no hay cuerpo que se pueda escribir en un formato que el cliente acepte
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> handleNotAcceptable(HttpMediaTypeNotAcceptableException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).build();
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleNotReadable(HttpMessageNotReadableException ex) {
+        return build(ErrorCode.INVALID_REQUEST, "El cuerpo de la peticion no es valido");
+    }
+
+    // no se devuelven detalles internos al cliente, solo se registran
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<?> handleGeneralException(Exception ex) {
-        return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                        "Error interno del servidor: " + ex.getMessage()));
+    public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
+        log.error("Error no controlado", ex);
+        return build(ErrorCode.INTERNAL_ERROR, "Error interno del servidor");
     }
 
-    @ExceptionHandler(IllegalStateException.class)
-    public ResponseEntity<?> handleIllegalStateException(IllegalStateException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
+    private static ResponseEntity<ErrorResponse> build(ErrorCode code, String message) {
+        return ResponseEntity.status(code.getStatus()).body(new ErrorResponse(code, message));
     }
 }
@@ -1,7 +1,7 @@
 package com.gammatech.coffee.exceptions;
 
-public class ResourceAlreadyExistsException extends RuntimeException {
-    public ResourceAlreadyExistsException(String message) {
-        super(message);
+public class ResourceAlreadyExistsException extends DomainException {
+    public ResourceAlreadyExistsException(String template, Object... args) {
+        super(ErrorCode.RESOURCE_ALREADY_EXISTS, template, args);
     }
 }
@@ -0,0 +1,7 @@
+package com.gammatech.coffee.exceptions;
+
+public class ResourceInUseException extends DomainException {
+    public ResourceInUseException(String template, Object... args) {
+        super(ErrorCode.RESOURCE_IN_USE, template, args);
+    }
+}
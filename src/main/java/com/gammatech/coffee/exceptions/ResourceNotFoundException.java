@@ -1,7 +1,7 @@
 package com.gammatech.coffee.exceptions;
 
-public class ResourceNotFoundException extends RuntimeException {
-    public ResourceNotFoundException(String message) {
-        super(message);
+public class ResourceNotFoundException extends DomainException {
+    public ResourceNotFoundException(String template, Object... args) {
+        super(ErrorCode.RESOURCE_NOT_FOUND, template, args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.gammatech.coffee.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Lector CSV en streaming: lee fila a fila sin cargar el fichero en memoria.
+ * La primera fila es la cabecera; admite campos entre comillas con comas y comillas dobles ("").
+ * No admite saltos de linea dentro de un campo.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> header = new HashMap<>();
+    private int lineNumber;
+
+    public CsvReader(InputStream input) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String first = reader.readLine();
+        if (first == null) {
+            throw new IllegalArgumentException("El fichero CSV esta vacio");
+        }
+        lineNumber = 1;
+        List<String> columns = parse(first.startsWith("\uFEFF") ? first.substring(1) : first);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(), i);
+        }
+    }
+
+    public void requireColumns(String... columns) {
+        for (String column : columns) {
+            if (!header.containsKey(column.toLowerCase())) {
+                throw new IllegalArgumentException("Falta la columna obligatoria '" + column + "' en la cabecera del CSV");
+            }
+        }
+    }
+
+    // devuelve null al final del fichero; las lineas vacias se saltan
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        return new Row(lineNumber, parse(line));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public class Row {
+        private final int line;
+        private final List<String> values;
+
+        Row(int line, List<String> values) {
+            this.line = line;
+            this.values = values;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        // valor recortado de la columna, o null si no existe o esta vacio
+        public String get(String column) {
+            Integer index = header.get(column.toLowerCase());
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.gammatech.coffee.invalidation;
+
+// Aviso de que una entidad ha cambiado (o se ha borrado); quien lo recibe vuelve a leer su estado actual
+public record EntityChange(String entity, Long id) {
+
+    public static final String COFFEE = "coffee";
+    public static final String CUSTOMER = "customer";
+}
@@ -0,0 +1,18 @@
+package com.gammatech.coffee.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Difunde a las demas instancias los cambios de entidades que guardan en memoria
+ * (indices de busqueda, caches). Los avisos solo llegan a los demas nodos si la transaccion hace commit;
+ * el nodo que publica ya actualiza lo suyo con AfterCommit.
+ */
+public interface InvalidationBus {
+
+    void publish(Collection<EntityChange> changes);
+
+    default void publish(String entity, Long id) {
+        publish(List.of(new EntityChange(entity, id)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.gammatech.coffee.invalidation;
+
+// Lo implementan los componentes con datos en memoria que otra instancia puede dejar obsoletos
+public interface InvalidationListener {
+
+    void onChange(EntityChange change);
+
+    // se han podido perder avisos: hay que recargar todo
+    void onReset();
+}
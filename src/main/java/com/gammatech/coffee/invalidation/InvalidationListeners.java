@@ -0,0 +1,37 @@
+package com.gammatech.coffee.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Reparte los avisos recibidos; un listener que falla no impide que se avise a los demas
+class InvalidationListeners {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationListeners.class);
+
+    private final ObjectProvider<InvalidationListener> listeners;
+
+    InvalidationListeners(ObjectProvider<InvalidationListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    void change(EntityChange change) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo aplicar el cambio {} en {}", change, listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    void reset() {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onReset();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo recargar {}", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.gammatech.coffee.invalidation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Invalidacion entre instancias (coffee.invalidation.*)
+@ConfigurationProperties(prefix = "coffee.invalidation")
+public class InvalidationProperties {
+
+    // jdbc (tabla entity_change, sin infraestructura extra) o loopback (en memoria, para tests)
+    private String bus = "jdbc";
+
+    // cada cuanto se leen los avisos nuevos: es la obsolescencia maxima en condiciones normales
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // si no se ha podido leer durante mas tiempo, al recuperar la conexion se recarga todo
+    private Duration maxStaleness = Duration.ofSeconds(30);
+
+    // tiempo que se espera a un id que falta (transaccion aun abierta) antes de darlo por perdido;
+    // debe superar la duracion de la transaccion de escritura mas larga
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    // antiguedad a partir de la cual se borran los avisos ya leidos
+    private Duration retention = Duration.ofHours(1);
+
+    private int batchSize = 500;
+
+    // los buses loopback con el mismo canal en la misma JVM se ven entre si
+    private String channel = "default";
+
+    public String getBus() {
+        return bus;
+    }
+
+    public void setBus(String bus) {
+        this.bus = bus;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    public Duration getGapTimeout() {
+        return gapTimeout;
+    }
+
+    public void setGapTimeout(Duration gapTimeout) {
+        this.gapTimeout = gapTimeout;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
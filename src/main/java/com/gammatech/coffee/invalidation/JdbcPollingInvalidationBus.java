@@ -0,0 +1,158 @@
+package com.gammatech.coffee.invalidation;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * Bus sobre la propia base de datos (tabla entity_change), sin infraestructura extra.
+ * publish() inserta los avisos en la transaccion del cambio: los demas nodos solo los ven tras el commit
+ * y nunca se pierden por un fallo entre el commit y el envio.
+ * Cada nodo lee cada poll-interval los avisos con id mayor que su marca y descarta los suyos.
+ * Un id que falta puede ser una transaccion aun abierta: la marca no lo salta hasta pasado gap-timeout.
+ * Si no se puede leer durante mas de max-staleness, al volver se pide a los listeners que recarguen todo.
+ * El sondeo tiene su propio hilo: en el pool de @Scheduled lo retrasarian el archivado, la purga o las reconciliaciones.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(prefix = "coffee.invalidation", name = "bus", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcPollingInvalidationBus implements InvalidationBus, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcPollingInvalidationBus.class);
+    private static final long PURGE_EVERY_NANOS = 60_000_000_000L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationProperties properties;
+    private final InvalidationListeners listeners;
+    private final String origin = UUID.randomUUID().toString();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("invalidation-poller").daemon().factory());
+
+    // todos los avisos con id <= watermark ya se han procesado; seen guarda los procesados por encima
+    private long watermark;
+    private final NavigableSet<Long> seen = new TreeSet<>();
+    private long gapSince;
+    private long lastPoll = System.nanoTime();
+    private long lastPurge = System.nanoTime();
+
+    public JdbcPollingInvalidationBus(JdbcTemplate jdbcTemplate, InvalidationProperties properties,
+            ObjectProvider<InvalidationListener> listeners) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.listeners = new InvalidationListeners(listeners);
+        // lo anterior al arranque ya esta en los datos que se cargan al arrancar
+        this.watermark = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from entity_change", Long.class);
+    }
+
+    @Override
+    public void publish(Collection<EntityChange> changes) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (EntityChange change : changes) {
+            rows.add(new Object[] { change.entity(), change.id(), origin, now });
+        }
+        jdbcTemplate.batchUpdate("insert into entity_change (entity, entity_id, origin, changed_at) values (?, ?, ?, ?)",
+                rows);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getPollInterval().toNanos();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+
+    public synchronized void poll() {
+        long now = System.nanoTime();
+        List<Row> rows;
+        try {
+            rows = jdbcTemplate.query(
+                    "select id, entity, entity_id, origin from entity_change where id > ? order by id limit ?",
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4)),
+                    watermark, properties.getBatchSize());
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron leer los avisos de invalidacion: {}", e.getMessage());
+            return;
+        }
+        if (now - lastPoll > properties.getMaxStaleness().toNanos()) {
+            log.warn("Sin leer avisos de invalidacion durante mas de {}: se recarga todo", properties.getMaxStaleness());
+            listeners.reset();
+        }
+        lastPoll = now;
+
+        for (Row row : rows) {
+            if (seen.add(row.id()) && !origin.equals(row.origin())) {
+                listeners.change(new EntityChange(row.entity(), row.entityId()));
+            }
+        }
+        advanceWatermark(now);
+        purge(now);
+    }
+
+    // METODOS
+
+    // una excepcion que escapa cancela las siguientes ejecuciones del ScheduledExecutorService
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.error("Error procesando los avisos de invalidacion", e);
+        }
+    }
+
+    private void advanceWatermark(long now) {
+        while (!seen.isEmpty() && seen.first() == watermark + 1) {
+            watermark = seen.pollFirst();
+        }
+        if (seen.isEmpty()) {
+            gapSince = 0;
+        } else if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince > properties.getGapTimeout().toNanos()) {
+            // id de una transaccion que hizo rollback (o demasiado larga): se salta el hueco
+            watermark = seen.first() - 1;
+            gapSince = 0;
+            advanceWatermark(now);
+        }
+    }
+
+    private void purge(long now) {
+        if (now - lastPurge < PURGE_EVERY_NANOS) {
+            return;
+        }
+        lastPurge = now;
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        try {
+            jdbcTemplate.update("delete from entity_change where changed_at < ?", Timestamp.valueOf(cutoff));
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron borrar los avisos antiguos: {}", e.getMessage());
+        }
+    }
+
+    private record Row(long id, String entity, long entityId, String origin) {
+    }
+}
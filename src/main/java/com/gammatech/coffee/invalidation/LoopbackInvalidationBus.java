@@ -0,0 +1,51 @@
+package com.gammatech.coffee.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.gammatech.coffee.service.AfterCommit;
+
+/*
+ * Bus en memoria: entrega los avisos, tras el commit y en el mismo hilo, a los demas buses
+ * del mismo canal dentro de la JVM. Sirve para tests con varios contextos de aplicacion.
+ */
+@Component
+@ConditionalOnProperty(prefix = "coffee.invalidation", name = "bus", havingValue = "loopback")
+public class LoopbackInvalidationBus implements InvalidationBus, DisposableBean {
+
+    private static final Map<String, List<LoopbackInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final InvalidationListeners listeners;
+    private final List<LoopbackInvalidationBus> peers;
+
+    public LoopbackInvalidationBus(InvalidationProperties properties, ObjectProvider<InvalidationListener> listeners) {
+        this.listeners = new InvalidationListeners(listeners);
+        this.peers = CHANNELS.computeIfAbsent(properties.getChannel(), channel -> new CopyOnWriteArrayList<>());
+        peers.add(this);
+    }
+
+    @Override
+    public void publish(Collection<EntityChange> changes) {
+        List<EntityChange> copy = List.copyOf(changes);
+        AfterCommit.run(() -> {
+            for (LoopbackInvalidationBus peer : peers) {
+                if (peer != this) {
+                    copy.forEach(peer.listeners::change);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        peers.remove(this);
+    }
+}
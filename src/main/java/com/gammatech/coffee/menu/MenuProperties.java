@@ -0,0 +1,32 @@
+package com.gammatech.coffee.menu;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Carta ya serializada en memoria (coffee.menu.*)
+@ConfigurationProperties(prefix = "coffee.menu")
+public class MenuProperties {
+
+    // tamanos de pagina de GET /api/coffees que se guardan ya generados; el resto se serializa en cada peticion
+    private List<Integer> pageSizes = List.of(2, 10, 20);
+
+    // paginas guardadas por cada tamano (0 .. pages-1)
+    private int pages = 5;
+
+    public List<Integer> getPageSizes() {
+        return pageSizes;
+    }
+
+    public void setPageSizes(List<Integer> pageSizes) {
+        this.pageSizes = pageSizes;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public void setPages(int pages) {
+        this.pages = pages;
+    }
+}
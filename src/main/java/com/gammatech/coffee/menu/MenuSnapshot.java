@@ -0,0 +1,141 @@
+package com.gammatech.coffee.menu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationListener;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.responses.CoffeePageResponse;
+
+/*
+ * La carta (GET /api/coffees/all) y las primeras paginas de GET /api/coffees ya serializadas a JSON y comprimidas
+ * con gzip, para escribirlas tal cual en la respuesta.
+ * CoffeeService la invalida tras cada commit que cambia cafes (y las demas instancias por InvalidationBus);
+ * la siguiente peticion la regenera entera y la publica de una vez. Si mientras se regeneraba hubo otro cambio,
+ * el resultado solo vale para esa peticion.
+ */
+@Component
+public class MenuSnapshot implements InvalidationListener {
+
+    private final CoffeeRepository coffeeRepository;
+    private final ObjectMapper objectMapper;
+    private final MenuProperties properties;
+
+    private final Object lock = new Object();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public MenuSnapshot(CoffeeRepository coffeeRepository, ObjectMapper objectMapper, MenuProperties properties) {
+        this.coffeeRepository = coffeeRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    // vacio si no hay cafes (la API responde 204)
+    public Optional<Rendered> all() {
+        return Optional.ofNullable(current().all());
+    }
+
+    // vacio si esa pagina no se guarda: el controlador la serializa en el momento
+    public Optional<Rendered> page(int page, int size) {
+        List<Rendered> pages = current().pages().get(size);
+        return pages == null || page < 0 || page >= pages.size() ? Optional.empty() : Optional.of(pages.get(page));
+    }
+
+    // no espera a una regeneracion en curso: si esta se publica despues, ella misma se retira (ver current)
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public byte[] render(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la carta", e);
+        }
+    }
+
+    @Override
+    public void onChange(EntityChange change) {
+        if (EntityChange.COFFEE.equals(change.entity())) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void onReset() {
+        invalidate();
+    }
+
+    // METODOS
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long started = generation.get();
+            Snapshot built = build();
+            snapshot = built;
+            if (generation.get() != started) {
+                snapshot = null;
+            }
+            return built;
+        }
+    }
+
+    // ordenados por id y con los mismos campos, igual que CoffeeService.getAllCoffees() y getAllPageable()
+    private Snapshot build() {
+        List<Coffee> coffees = coffeeRepository.findAll(Sort.by("id"));
+        Rendered all = coffees.isEmpty() ? null : rendered(coffees);
+        Map<Integer, List<Rendered>> pages = new HashMap<>();
+        for (int size : properties.getPageSizes()) {
+            int totalPages = (coffees.size() + size - 1) / size;
+            Rendered[] rendered = new Rendered[properties.getPages()];
+            for (int page = 0; page < rendered.length; page++) {
+                List<Coffee> content = coffees.subList(Math.min(coffees.size(), page * size),
+                        Math.min(coffees.size(), (page + 1) * size));
+                rendered[page] = rendered(new CoffeePageResponse(content, coffees.size(), totalPages, page));
+            }
+            pages.put(size, List.of(rendered));
+        }
+        return new Snapshot(all, Map.copyOf(pages));
+    }
+
+    private Rendered rendered(Object value) {
+        byte[] json = render(value);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Rendered(json, out.toByteArray());
+    }
+
+    private record Snapshot(Rendered all, Map<Integer, List<Rendered>> pages) {
+    }
+
+    // los arrays no se modifican una vez publicados
+    public record Rendered(byte[] json, byte[] gzip) {
+    }
+}
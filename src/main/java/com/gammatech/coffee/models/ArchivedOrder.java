@@ -0,0 +1,84 @@
+package com.gammatech.coffee.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// Pedido historico (en estado final): una fila por pedido con sus lineas serializadas en JSON compacto
+@Entity
+@Table(name = "orders_archive", indexes = @Index(name = "idx_orders_archive_customer", columnList = "customerId"))
+public class ArchivedOrder {
+
+    // mismo id que tenia el pedido en la tabla orders
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    private LocalDateTime dateOrder;
+
+    // varchar como en V6: con MySQL, Hibernate esperaria una columna enum nativa
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20)
+    private OrderStatus orderStatus;
+
+    private double total;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedOrder() {
+    }
+
+    public ArchivedOrder(Long id, Long customerId, LocalDateTime dateOrder, OrderStatus orderStatus, double total,
+            String items, LocalDateTime archivedAt) {
+        this.id = id;
+        this.customerId = customerId;
+        this.dateOrder = dateOrder;
+        this.orderStatus = orderStatus;
+        this.total = total;
+        this.items = items;
+        this.archivedAt = archivedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDateTime getDateOrder() {
+        return dateOrder;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public String getItems() {
+        return items;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.gammatech.coffee.models;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * Cambio de estado de varios pedidos a la vez. Se indica una de las dos formas:
+ * - ids: lista de pedidos
+ * - fromStatus (+ olderThan opcional): p.ej. todos los PROCESSING de hace mas de 30 minutos
+ */
+public record BulkStatusRequest(List<Long> ids, OrderStatus fromStatus, Duration olderThan, OrderStatus status) {
+}
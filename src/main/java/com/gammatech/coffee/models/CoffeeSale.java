@@ -0,0 +1,7 @@
+package com.gammatech.coffee.models;
+
+import java.time.LocalDateTime;
+
+// unidades de un cafe vendidas en un momento dado (alimenta el ranking de TrendingCoffees)
+public record CoffeeSale(Long coffeeId, String coffeeName, int quantity, LocalDateTime at) {
+}
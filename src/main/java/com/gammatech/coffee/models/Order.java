@@ -1,27 +1,43 @@
 package com.gammatech.coffee.models;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+// Forma de carga del pedido que se devuelve al cliente: cliente + items + cafe de cada item
+@NamedEntityGraph(name = Order.GRAPH_FULL, attributeNodes = {
+        @NamedAttributeNode("customer"),
+        @NamedAttributeNode(value = "items", subgraph = "items")
+}, subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("coffee")))
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_status", columnList = "orderStatus, id"))
 public class Order {
+    public static final String GRAPH_FULL = "Order.full";
+
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
@@ -29,11 +45,20 @@ public class Order {
 
     private OrderStatus orderStatus;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<OrderItem> items;
 
     private double total;
+
+    // puesto de barista que lo prepara (lo fija StationScheduler al reclamarlo)
+    @Column(length = 64)
+    private String stationId;
+
+    // sube con cada cambio (tambien en los UPDATE en bloque); order_view guarda con que version se genero
+    @Version
+    @JsonIgnore
+    private Long version;
     
 
     /*
@@ -70,6 +95,10 @@ public class Order {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
@@ -111,6 +140,18 @@ public class Order {
         this.total = total;
     }
 
+    public String getStationId() {
+        return stationId;
+    }
+
+    public void setStationId(String stationId) {
+        this.stationId = stationId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     // metodo para calcular el total de la orden
     public double calculateTotal() {
         return items.stream()
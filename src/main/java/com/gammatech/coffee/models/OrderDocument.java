@@ -0,0 +1,5 @@
+package com.gammatech.coffee.models;
+
+// JSON ya generado de un pedido (columna document de order_view)
+public record OrderDocument(Long orderId, String json) {
+}
@@ -1,10 +1,36 @@
 package com.gammatech.coffee.models;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 public enum OrderStatus {
     PENDING,
     PROCESSING,
     SHIPPED,
     DELIVERED;
 
- 
-}
\ No newline at end of file
+    // los pedidos solo avanzan: se puede pasar a cualquier estado posterior
+    public boolean canTransitionTo(OrderStatus target) {
+        return target != null && target.ordinal() > ordinal();
+    }
+
+    // sin estados posteriores: el pedido ya no va a cambiar (solo estos se pueden archivar y borrar)
+    public boolean isTerminal() {
+        return ordinal() == values().length - 1;
+    }
+
+    // archivado y borrado: los pedidos que aun pueden cambiar (o que un puesto puede reclamar) no se tocan
+    public static void requireTerminal(Collection<OrderStatus> statuses) {
+        for (OrderStatus status : statuses) {
+            if (!status.isTerminal()) {
+                throw new IllegalArgumentException("Solo se admiten pedidos en un estado final, no " + status);
+            }
+        }
+    }
+
+    // estados desde los que se puede llegar a este
+    public List<OrderStatus> previous() {
+        return Arrays.asList(values()).subList(0, ordinal());
+    }
+}
@@ -0,0 +1,86 @@
+package com.gammatech.coffee.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Vista desnormalizada de un pedido: el JSON que devuelve la API, generado al escribir (solo lectura para JPA)
+@Entity
+@Table(name = "order_view", indexes = {
+        @Index(name = "idx_order_view_status", columnList = "orderStatus, orderId"),
+        @Index(name = "idx_order_view_customer", columnList = "customerId, orderId")
+})
+public class OrderView {
+
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    private String customerName;
+
+    private OrderStatus orderStatus;
+
+    private LocalDateTime dateOrder;
+
+    private double total;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String document;
+
+    // version de OrderViewProjector que genero la fila
+    private int projectionVersion;
+
+    // version del pedido con la que se genero la fila
+    private long orderVersion;
+
+    private LocalDateTime projectedAt;
+
+    public OrderView() {
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public LocalDateTime getDateOrder() {
+        return dateOrder;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public int getProjectionVersion() {
+        return projectionVersion;
+    }
+
+    public long getOrderVersion() {
+        return orderVersion;
+    }
+
+    public LocalDateTime getProjectedAt() {
+        return projectedAt;
+    }
+}
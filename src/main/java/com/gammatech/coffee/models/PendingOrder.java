@@ -0,0 +1,7 @@
+package com.gammatech.coffee.models;
+
+import java.time.LocalDateTime;
+
+// pedido PENDING tal como lo necesita la cola de StationScheduler (sin cargar la entidad)
+public record PendingOrder(Long id, Long customerId, LocalDateTime dateOrder, int items) {
+}
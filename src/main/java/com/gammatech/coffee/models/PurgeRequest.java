@@ -0,0 +1,9 @@
+package com.gammatech.coffee.models;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Borrado de pedidos por estado y/o antiguedad, p.ej. {"statuses": ["DELIVERED"], "olderThan": "P180D"}
+// Solo estados finales; sin statuses se usan los de coffee.retention.statuses
+public record PurgeRequest(Set<OrderStatus> statuses, Duration olderThan) {
+}
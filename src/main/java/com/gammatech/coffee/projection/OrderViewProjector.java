@@ -0,0 +1,258 @@
+package com.gammatech.coffee.projection;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Mantiene order_view: una fila por pedido con el JSON que devuelve la API ya generado.
+ * OrderService llama a project/remove dentro de la transaccion de cada cambio, asi que la vista se confirma (o se
+ * deshace) junto con el pedido, en su shard, y con la misma conexion (una transaccion nueva tras el commit ocupaba una segunda
+ * conexion del pool mientras la primera seguia retenida, y con el pool lleno las peticiones se bloqueaban).
+ * Los cambios de cafes y clientes regeneran en segundo plano los pedidos afectados; cada fila guarda la version del
+ * pedido con la que se genero y una lectura anterior no pisa una fila mas reciente.
+ * Si cambia la forma del documento hay que subir VERSION: al arrancar (y en cada reconcile) se regeneran las filas antiguas
+ * (tambien se puede lanzar a mano con --rebuild-order-view, ver OrderViewRebuildCommand).
+ */
+@Component
+public class OrderViewProjector implements DisposableBean {
+
+    public static final int VERSION = 1;
+
+    private static final Logger log = LoggerFactory.getLogger(OrderViewProjector.class);
+
+    private static final int BATCH_SIZE = 200;
+    // un solo upsert por fila: update + insert de los que faltaban bloqueaba huecos del indice en MySQL y dos
+    // pedidos nuevos a la vez acababan en deadlock (H2 en modo MySQL entiende la misma sintaxis).
+    // Solo se pisa la fila si se genero con una version del pedido igual o anterior: una regeneracion en segundo
+    // plano que leyo el pedido antes de un cambio ya confirmado no lo deshace. order_version va la ultima porque
+    // MySQL aplica las asignaciones en orden y las siguientes verian ya el valor nuevo.
+    private static final String UPSERT = "insert into order_view (customer_id, customer_name, order_status, date_order,"
+            + " total, document, projection_version, projected_at, order_version, order_id)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) on duplicate key update"
+            + guarded("customer_id", "customer_name", "order_status", "date_order", "total", "document",
+                    "projection_version", "projected_at", "order_version");
+    private static final String STALE = "select o.id from orders o left join order_view v on v.order_id = o.id"
+            + " where v.order_id is null or v.order_version <> o.version or v.projection_version <> ? order by o.id";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OrderViewProjector(OrderRepository orderRepository, ObjectMapper objectMapper, ShardRouter shardRouter, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // sin capturar errores: si la vista falla se deshace tambien el pedido y el cliente recibe el error
+    public void project(Order order) {
+        transactionTemplate.executeWithoutResult(status -> write(List.of(order)));
+    }
+
+    public void remove(Long orderId) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("delete from order_view where order_id = ?", orderId));
+    }
+
+    // cambios de estado en bloque (ya aplicados, con la version del pedido incrementada): se modifica el estado en
+    // los documentos que estaban al dia, sin cargar los pedidos; los demas (sin fila, de una version anterior del
+    // pedido o de VERSION) se regeneran enteros
+    public void updateStatus(List<Long> orderIds, OrderStatus status) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(orderIds.size());
+            Set<Long> patched = new HashSet<>();
+            namedJdbcTemplate.query("select v.order_id, v.document, o.version from order_view v"
+                    + " join orders o on o.id = v.order_id where v.order_id in (:ids)"
+                    + " and v.order_version = o.version - 1 and v.projection_version = :version",
+                    Map.of("ids", orderIds, "version", VERSION), rs -> {
+                        rows.add(new Object[] { status.ordinal(), withStatus(rs.getString(2), status), now,
+                                rs.getLong(3), rs.getLong(1) });
+                        patched.add(rs.getLong(1));
+                    });
+            jdbcTemplate.batchUpdate("update order_view set order_status = ?, document = ?, projected_at = ?,"
+                    + " order_version = ? where order_id = ?", rows);
+            List<Long> stale = orderIds.stream().filter(id -> !patched.contains(id)).toList();
+            if (!stale.isEmpty()) {
+                reproject(stale);
+            }
+        });
+    }
+
+    // el nombre o el precio del cafe aparece en los documentos de sus pedidos, en cualquier shard
+    public void refreshCoffee(Long coffeeId) {
+        refreshLater(() -> {
+            int total = 0;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                total += shardRouter.onShard(shard, () -> reproject(orderRepository.findIdsByCoffeeId(coffeeId)));
+            }
+            return total;
+        });
+    }
+
+    public void refreshCustomer(Long customerId) {
+        refreshLater(() -> shardRouter.onShardOf(customerId,
+                () -> reproject(orderRepository.findIdsByCustomerId(customerId))));
+    }
+
+    // regenera todos los documentos de todos los shards; devuelve el numero de pedidos proyectados
+    public int rebuild() {
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            total += shardRouter.onShard(shard, this::rebuildShard);
+        }
+        return total;
+    }
+
+    // al arrancar y periodicamente: regenera los pedidos sin documento, con un documento de una version anterior
+    // del pedido (una proyeccion perdida) o de una version anterior de VERSION, y borra los huerfanos
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${coffee.order-view.reconcile-interval:PT10M}",
+            fixedDelayString = "${coffee.order-view.reconcile-interval:PT10M}")
+    public void reconcile() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int target = shard;
+            shardRouter.onShard(shard, () -> {
+                List<Long> stale = jdbcTemplate.queryForList(STALE, Long.class, VERSION);
+                if (!stale.isEmpty()) {
+                    log.info("order_view desactualizada en el shard {} ({} documentos): regenerando", target,
+                            stale.size());
+                    reproject(stale);
+                }
+                deleteOrphans();
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    // METODOS
+
+    private int rebuildShard() {
+        int total = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<Long> ids = orderRepository.findIdsAfter(after, PageRequest.of(0, BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += reproject(ids);
+            lastId = ids.get(ids.size() - 1);
+        }
+        deleteOrphans();
+        return total;
+    }
+
+    // pedidos borrados o archivados mientras la vista no estaba al dia
+    private void deleteOrphans() {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("delete from order_view where order_id not in (select id from orders)"));
+    }
+
+    private int reproject(List<Long> ids) {
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            total += transactionTemplate.execute(status -> {
+                List<Order> orders = orderRepository.findAllByIdIn(chunk);
+                write(orders);
+                return orders.size();
+            });
+        }
+        return total;
+    }
+
+    private void write(List<Order> orders) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            rows.add(new Object[] { order.getCustomer().getId(), order.getCustomer().getName(),
+                    order.getOrderStatus() == null ? null : order.getOrderStatus().ordinal(),
+                    order.getDateOrder() == null ? null : Timestamp.valueOf(order.getDateOrder()),
+                    order.getTotal(), render(order), VERSION, now, order.getVersion(), order.getId() });
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    private static String guarded(String... columns) {
+        StringJoiner set = new StringJoiner(",");
+        for (String column : columns) {
+            set.add(" " + column + " = case when order_version <= values(order_version) then values(" + column
+                    + ") else " + column + " end");
+        }
+        return set.toString();
+    }
+
+    private String render(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el pedido " + order.getId(), e);
+        }
+    }
+
+    private String withStatus(String document, OrderStatus status) {
+        try {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(document);
+            node.put("orderStatus", status.name());
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Documento de order_view invalido", e);
+        }
+    }
+
+    private void refreshLater(Supplier<Integer> task) {
+        refresher.submit(() -> {
+            try {
+                task.get();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo regenerar order_view", e);
+            }
+        });
+    }
+}
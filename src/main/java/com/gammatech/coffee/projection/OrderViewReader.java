@@ -0,0 +1,134 @@
+package com.gammatech.coffee.projection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.archive.ArchivedOrderReader;
+import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderDocument;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.service.OrderService;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Lecturas JSON de pedidos servidas desde order_view: una consulta por indice y el documento tal cual,
+ * sin cargar entidades ni serializar. Los pedidos archivados (y los que aun no tengan fila al dia) se leen como antes.
+ */
+@Component
+public class OrderViewReader {
+
+    private static final Comparator<OrderDocument> BY_ID = Comparator.comparing(OrderDocument::orderId);
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final ArchivedOrderReader archivedOrderReader;
+    private final OrderService orderService;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+
+    public OrderViewReader(OrderViewRepository orderViewRepository, OrderRepository orderRepository,
+            CustomerRepository customerRepository, ArchivedOrderReader archivedOrderReader, OrderService orderService,
+            ShardRouter shardRouter, ObjectMapper objectMapper) {
+        this.orderViewRepository = orderViewRepository;
+        this.orderRepository = orderRepository;
+        this.customerRepository = customerRepository;
+        this.archivedOrderReader = archivedOrderReader;
+        this.orderService = orderService;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper;
+    }
+
+    public String getOrderById(Long orderId) {
+        // sin documento al dia (o sin pedido: puede estar archivado) se lee como antes
+        return shardRouter.findFirst(() -> orderViewRepository.findDocumentById(orderId))
+                .map(OrderDocument::json)
+                .orElseGet(() -> render(orderService.getOrderById(orderId)));
+    }
+
+    public List<String> getOrdersByStatus(OrderStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("El estado del pedido no puede ser nulo");
+        }
+        return shardRouter.scatterGather(() -> withFallback(orderViewRepository.findDocumentsByStatus(status)), BY_ID)
+                .stream()
+                .map(OrderDocument::json)
+                .toList();
+    }
+
+    public List<String> getOrdersByCustomer(Long customerId) {
+        return shardRouter.onShardOf(customerId, () -> {
+            Customer customer = customerRepository.findById(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("No existe el cliente con ID: %s", customerId));
+            List<String> documents = new ArrayList<>();
+            for (OrderDocument document : withFallback(orderViewRepository.findDocumentsByCustomerId(customerId))) {
+                documents.add(document.json());
+            }
+            for (Order archived : archivedOrderReader.findAllByCustomer(customer)) {
+                documents.add(render(archived));
+            }
+            return documents;
+        });
+    }
+
+    // une documentos ya serializados en un array JSON
+    public static String toJsonArray(List<String> documents) {
+        int length = 2 + documents.size();
+        for (String document : documents) {
+            length += document.length();
+        }
+        StringBuilder json = new StringBuilder(length).append('[');
+        for (int i = 0; i < documents.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(documents.get(i));
+        }
+        return json.append(']').toString();
+    }
+
+    // los pedidos sin documento al dia (proyeccion perdida, aun sin regenerar) se cargan y serializan como antes
+    private List<OrderDocument> withFallback(List<OrderDocument> documents) {
+        List<Long> missing = new ArrayList<>();
+        for (OrderDocument document : documents) {
+            if (document.json() == null) {
+                missing.add(document.orderId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return documents;
+        }
+        Map<Long, String> rendered = new HashMap<>();
+        for (Order order : orderRepository.findAllByIdIn(missing)) {
+            rendered.put(order.getId(), render(order));
+        }
+        List<OrderDocument> complete = new ArrayList<>(documents.size());
+        for (OrderDocument document : documents) {
+            String json = document.json() != null ? document.json() : rendered.get(document.orderId());
+            if (json != null) {
+                complete.add(new OrderDocument(document.orderId(), json));
+            }
+        }
+        return complete;
+    }
+
+    private String render(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el pedido " + order.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.gammatech.coffee.projection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/*
+ * Regenera order_view completa y termina, sin quedarse sirviendo peticiones:
+ *   java -jar coffee.jar --rebuild-order-view
+ * Para usar tras cambiar la forma del documento si no se quiere esperar a la comprobacion del arranque.
+ */
+@Component
+public class OrderViewRebuildCommand implements ApplicationRunner {
+
+    public static final String OPTION = "rebuild-order-view";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderViewRebuildCommand.class);
+
+    private final OrderViewProjector projector;
+    private final ConfigurableApplicationContext context;
+
+    public OrderViewRebuildCommand(OrderViewProjector projector, ConfigurableApplicationContext context) {
+        this.projector = projector;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        int total = projector.rebuild();
+        log.info("order_view regenerada: {} pedidos", total);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
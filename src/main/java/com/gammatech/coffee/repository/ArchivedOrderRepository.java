@@ -0,0 +1,21 @@
+package com.gammatech.coffee.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.gammatech.coffee.models.ArchivedOrder;
+import com.gammatech.coffee.models.OrderStatus;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    List<ArchivedOrder> findAllByCustomerId(Long customerId);
+
+    @Query("select a.id from ArchivedOrder a where a.orderStatus in :statuses and a.dateOrder < :cutoff order by a.id")
+    List<Long> findIdsToPurge(@Param("statuses") Collection<OrderStatus> statuses,
+            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+}
@@ -1,10 +1,18 @@
 package com.gammatech.coffee.repository;
 import com.gammatech.coffee.models.Coffee;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 @Repository
 public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
     boolean existsByName(String name);
 
+    // comprobacion de unicidad por lotes (importacion CSV)
+    @Query("select c.name from Coffee c where c.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
 }
\ No newline at end of file
@@ -2,7 +2,12 @@ package com.gammatech.coffee.repository;
 
 
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.gammatech.coffee.models.Customer;
@@ -12,4 +17,8 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
   boolean existsByEmail(String email);
 
   Customer findByEmail(String email);
+
+  // comprobacion de unicidad por lotes (importacion CSV)
+  @Query("select c.email from Customer c where c.email in :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
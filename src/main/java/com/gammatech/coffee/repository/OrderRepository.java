@@ -1,13 +1,123 @@
 package com.gammatech.coffee.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import com.gammatech.coffee.models.CoffeeSale;
 import com.gammatech.coffee.models.Order;
 import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.PendingOrder;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByOrderStatus(OrderStatus status);
+
+    // todas las lecturas que se devuelven al cliente cargan el grafo completo en una sola consulta
+    @Override
+    @EntityGraph(Order.GRAPH_FULL)
+    List<Order> findAll();
+
+    @Override
+    @EntityGraph(Order.GRAPH_FULL)
+    List<Order> findAll(Sort sort);
+
+    @EntityGraph(Order.GRAPH_FULL)
+    Optional<Order> findFullById(Long id);
+
+    // bloquea la fila del pedido hasta el commit: las modificaciones simultaneas del mismo pedido esperan su turno.
+    // Va aparte de la carga del grafo: H2 leeria las lineas de antes de la espera si el FOR UPDATE llevara los joins
+    @Query(value = "select id from orders where id = :id for update", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    @EntityGraph(Order.GRAPH_FULL)
+    List<Order> findByOrderStatus(OrderStatus status, Sort sort);
+
+    @EntityGraph(Order.GRAPH_FULL)
     List<Order> findAllByCustomerId(Long customerId);
+
+    @EntityGraph(Order.GRAPH_FULL)
+    List<Order> findAllByIdIn(Collection<Long> ids);
+
+    // referencias antes de borrar un cafe o un cliente (una consulta con limit 1)
+    boolean existsByItemsCoffeeId(Long coffeeId);
+
+    boolean existsByCustomerId(Long customerId);
+
+    // CAMBIOS DE ESTADO EN BLOQUE: se bloquean solo los ids (sin cargar entidades) y se actualizan con un UPDATE
+
+    @Query(value = "select id from orders where id in (:ids) and order_status in (:statuses) order by id for update",
+            nativeQuery = true)
+    List<Long> lockIdsInStatus(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<Integer> statuses);
+
+    @Query(value = "select id from orders where order_status in (:statuses) and date_order < :cutoff order by id"
+            + " limit :limit for update", nativeQuery = true)
+    List<Long> lockIdsInStatusBefore(@Param("statuses") Collection<Integer> statuses,
+            @Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update Order o set o.orderStatus = :status, o.version = o.version + 1 where o.id in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    // PUESTOS DE BARISTA: reclamar un pedido es un UPDATE condicional; solo uno de los puestos lo consigue
+
+    @Modifying
+    @Query("update Order o set o.orderStatus = com.gammatech.coffee.models.OrderStatus.PROCESSING,"
+            + " o.stationId = :stationId, o.version = o.version + 1"
+            + " where o.id = :id and o.orderStatus = com.gammatech.coffee.models.OrderStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("stationId") String stationId);
+
+    @Modifying
+    @Query("update Order o set o.orderStatus = com.gammatech.coffee.models.OrderStatus.PENDING, o.stationId = null,"
+            + " o.version = o.version + 1"
+            + " where o.id = :id and o.stationId = :stationId"
+            + " and o.orderStatus = com.gammatech.coffee.models.OrderStatus.PROCESSING")
+    int release(@Param("id") Long id, @Param("stationId") String stationId);
+
+    @Query("select new com.gammatech.coffee.models.PendingOrder(o.id, o.customer.id, o.dateOrder, size(o.items))"
+            + " from Order o where o.orderStatus = com.gammatech.coffee.models.OrderStatus.PENDING")
+    List<PendingOrder> findPendingOrders();
+
+    // MODELO DE LECTURA (order_view)
+
+    @Query("select o.id from Order o where o.id > :after order by o.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select distinct i.order.id from OrderItem i where i.coffee.id = :coffeeId")
+    List<Long> findIdsByCoffeeId(@Param("coffeeId") Long coffeeId);
+
+    @Query("select o.id from Order o where o.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    // RANKING DE CAFES: lineas de pedido recientes, en streaming y sin cargar entidades
+
+    @Query("select new com.gammatech.coffee.models.CoffeeSale(c.id, c.name, i.quantity, o.dateOrder)"
+            + " from OrderItem i join i.order o join i.coffee c where o.dateOrder >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CoffeeSale> streamSalesSince(@Param("since") LocalDateTime since);
+
+    // ARCHIVO Y BORRADO
+
+    @Query("select o.id from Order o where o.orderStatus in :statuses and o.dateOrder < :cutoff order by o.id")
+    List<Long> findIdsToArchive(@Param("statuses") Collection<OrderStatus> statuses,
+            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("delete from OrderItem i where i.order.id in :ids")
+    int deleteItemsByOrderIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,34 @@
+package com.gammatech.coffee.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.gammatech.coffee.models.OrderDocument;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.OrderView;
+
+// Lecturas del modelo de lectura: una consulta por indice y solo la columna document, junto al pedido por clave
+// primaria para descartar documentos de una version anterior
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+
+    // se parte de orders: json es null si el pedido no tiene fila o si su fila es de una version anterior
+    @Query("select new com.gammatech.coffee.models.OrderDocument(o.id, v.document) from Order o"
+            + " left join OrderView v on v.orderId = o.id and v.orderVersion = o.version where o.id = :orderId")
+    Optional<OrderDocument> findDocumentById(@Param("orderId") Long orderId);
+
+    @Query("select new com.gammatech.coffee.models.OrderDocument(o.id, v.document) from Order o"
+            + " left join OrderView v on v.orderId = o.id and v.orderVersion = o.version"
+            + " where o.orderStatus = :status order by o.id")
+    List<OrderDocument> findDocumentsByStatus(@Param("status") OrderStatus status);
+
+    @Query("select new com.gammatech.coffee.models.OrderDocument(o.id, v.document) from Order o"
+            + " left join OrderView v on v.orderId = o.id and v.orderVersion = o.version"
+            + " where o.customer.id = :customerId order by o.id")
+    List<OrderDocument> findDocumentsByCustomerId(@Param("customerId") Long customerId);
+}
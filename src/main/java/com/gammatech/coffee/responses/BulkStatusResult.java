@@ -0,0 +1,9 @@
+package com.gammatech.coffee.responses;
+
+import java.util.List;
+
+import com.gammatech.coffee.models.OrderStatus;
+
+// notTransitioned: ids pedidos que no existen o cuyo estado no permite pasar a status
+public record BulkStatusResult(OrderStatus status, List<Long> transitioned, List<Long> notTransitioned) {
+}
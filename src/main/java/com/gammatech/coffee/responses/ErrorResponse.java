@@ -1,11 +1,19 @@
 package com.gammatech.coffee.responses;
 
+import com.gammatech.coffee.exceptions.ErrorCode;
+
 public class ErrorResponse {
     private int status;
+    private ErrorCode code;
     private String message;
 
-    public ErrorResponse(int status, String message) {
+    public ErrorResponse(ErrorCode code, String message) {
+        this(code.getStatus().value(), code, message);
+    }
+
+    public ErrorResponse(int status, ErrorCode code, String message) {
         this.status = status;
+        this.code = code;
         this.message = message;
     }
 
@@ -13,7 +21,11 @@ public class ErrorResponse {
         return status;
     }
 
+    public ErrorCode getCode() {
+        return code;
+    }
+
     public String getMessage() {
         return message;
     }
-} 
\ No newline at end of file
+} 
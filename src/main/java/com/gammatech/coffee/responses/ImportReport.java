@@ -0,0 +1,48 @@
+package com.gammatech.coffee.responses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    // se limita el detalle para no devolver un informe enorme si todo el fichero es invalido
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        totalRows++;
+    }
+
+    public void rowsImported(int rows) {
+        imported += rows;
+    }
+
+    public void rowFailed(int line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public record RowError(int line, String message) {
+    }
+}
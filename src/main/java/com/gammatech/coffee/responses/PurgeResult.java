@@ -0,0 +1,5 @@
+package com.gammatech.coffee.responses;
+
+// pedidos borrados de orders y de orders_archive
+public record PurgeResult(int orders, int archivedOrders) {
+}
@@ -0,0 +1,5 @@
+package com.gammatech.coffee.responses;
+
+// assigned: pedidos asignados desde que se registro; waiting: peticiones /next abiertas
+public record StationStatus(String id, long assigned, int waiting) {
+}
@@ -0,0 +1,5 @@
+package com.gammatech.coffee.responses;
+
+// units puede sobrar como mucho maxOverestimate (resumen Space-Saving); nunca se queda corto
+public record TrendingCoffee(Long coffeeId, String name, long units, long maxOverestimate) {
+}
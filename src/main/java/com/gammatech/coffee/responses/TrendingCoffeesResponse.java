@@ -0,0 +1,6 @@
+package com.gammatech.coffee.responses;
+
+import java.util.List;
+
+public record TrendingCoffeesResponse(String window, List<TrendingCoffee> coffees) {
+}
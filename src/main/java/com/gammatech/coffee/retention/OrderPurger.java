@@ -0,0 +1,135 @@
+package com.gammatech.coffee.retention;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.PurgeRequest;
+import com.gammatech.coffee.repository.ArchivedOrderRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.responses.PurgeResult;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Borra pedidos por antiguedad y estado, en orders (con sus lineas y su fila de order_view) y en orders_archive.
+ * Cada lote es una transaccion corta de DELETE ... WHERE id IN (...), sin cargar entidades ni cascadas,
+ * con una pausa entre lotes. Lo usan la tarea programada y POST /api/orders/purge.
+ * Nunca es lazy: con spring.main.lazy-initialization no se crearia y @Scheduled no se registraria.
+ */
+@Component
+@Lazy(false)
+public class OrderPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPurger.class);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final RetentionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public OrderPurger(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+            OrderViewRepository orderViewRepository, RetentionProperties properties,
+            PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    @Scheduled(initialDelayString = "${coffee.retention.initial-delay:PT2M}", fixedDelayString = "${coffee.retention.interval:PT1H}")
+    public void scheduledPurge() {
+        if (properties.isEnabled()) {
+            PurgeResult result = purge(properties.getStatuses(), LocalDateTime.now().minus(properties.getOlderThan()));
+            if (result.orders() + result.archivedOrders() > 0) {
+                log.info("Borrados {} pedidos y {} pedidos archivados", result.orders(), result.archivedOrders());
+            }
+        }
+    }
+
+    // sin estados se borran los de coffee.retention.statuses anteriores a olderThan; sin olderThan, todos los de esos
+    // estados. Nunca se borran pedidos que aun pueden cambiar (PENDING, PROCESSING, SHIPPED)
+    public PurgeResult purge(PurgeRequest request) {
+        boolean byStatus = request.statuses() != null && !request.statuses().isEmpty();
+        if (!byStatus && request.olderThan() == null) {
+            throw new IllegalArgumentException("Se debe indicar la antiguedad o los estados de los pedidos a borrar");
+        }
+        if (request.olderThan() != null && request.olderThan().isNegative()) {
+            throw new IllegalArgumentException("La antiguedad no puede ser negativa");
+        }
+        LocalDateTime cutoff = request.olderThan() == null ? LocalDateTime.now()
+                : LocalDateTime.now().minus(request.olderThan());
+        return purge(byStatus ? request.statuses() : properties.getStatuses(), cutoff);
+    }
+
+    public PurgeResult purge(Collection<OrderStatus> statuses, LocalDateTime cutoff) {
+        OrderStatus.requireTerminal(statuses);
+        List<Integer> ordinals = statuses.stream().map(OrderStatus::ordinal).toList();
+        int orders = 0;
+        int archived = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            orders += shardRouter.onShard(shard, () -> inChunks(() -> purgeOrders(ordinals, cutoff)));
+            archived += shardRouter.onShard(shard, () -> inChunks(() -> purgeArchived(statuses, cutoff)));
+        }
+        return new PurgeResult(orders, archived);
+    }
+
+    // METODOS
+
+    private int inChunks(Supplier<Integer> chunk) {
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer deleted = transactionTemplate.execute(status -> chunk.get());
+            total += deleted;
+            if (deleted < properties.getBatchSize() || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int purgeOrders(List<Integer> statuses, LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.lockIdsInStatusBefore(statuses, cutoff, properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        orderRepository.deleteItemsByOrderIds(ids);
+        orderRepository.deleteByIds(ids);
+        orderViewRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private int purgeArchived(Collection<OrderStatus> statuses, LocalDateTime cutoff) {
+        List<Long> ids = archivedOrderRepository.findIdsToPurge(statuses, cutoff,
+                PageRequest.of(0, properties.getBatchSize()));
+        if (!ids.isEmpty()) {
+            archivedOrderRepository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.gammatech.coffee.retention;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.gammatech.coffee.models.OrderStatus;
+
+// Borrado definitivo de pedidos antiguos, en la tabla caliente y en el archivo (coffee.retention.*)
+@ConfigurationProperties(prefix = "coffee.retention")
+public class RetentionProperties {
+
+    private boolean enabled = false;
+
+    // estados que se borran con la tarea programada (y en POST /api/orders/purge sin statuses); solo estados finales
+    private Set<OrderStatus> statuses = EnumSet.of(OrderStatus.DELIVERED);
+
+    // antiguedad minima (desde dateOrder) para borrar un pedido
+    private Duration olderThan = Duration.ofDays(365);
+
+    // pedidos borrados por transaccion
+    private int batchSize = 500;
+
+    // espera entre lotes para no acaparar la base de datos
+    private Duration pause = Duration.ofMillis(50);
+
+    // maximo de lotes por ejecucion (por shard y por tabla)
+    private int maxBatchesPerRun = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<OrderStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<OrderStatus> statuses) {
+        OrderStatus.requireTerminal(statuses);
+        this.statuses = statuses;
+    }
+
+    public Duration getOlderThan() {
+        return olderThan;
+    }
+
+    public void setOlderThan(Duration olderThan) {
+        this.olderThan = olderThan;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
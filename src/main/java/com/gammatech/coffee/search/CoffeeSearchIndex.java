@@ -0,0 +1,63 @@
+package com.gammatech.coffee.search;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationListener;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.repository.CoffeeRepository;
+
+// Indice de busqueda por nombre de cafe; se construye al arrancar, lo mantiene CoffeeService
+// y se actualiza con los cambios que avisan las demas instancias
+@Component
+public class CoffeeSearchIndex implements InvalidationListener {
+
+    private final CoffeeRepository coffeeRepository;
+    private final PrefixSearchIndex<Coffee> index = new PrefixSearchIndex<>(Coffee::getId,
+            coffee -> List.of(coffee.getName()));
+
+    public CoffeeSearchIndex(CoffeeRepository coffeeRepository) {
+        this.coffeeRepository = coffeeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.rebuild(coffeeRepository.findAll().stream().map(CoffeeSearchIndex::copyOf).toList());
+    }
+
+    public void put(Coffee coffee) {
+        index.put(copyOf(coffee));
+    }
+
+    public void remove(Long coffeeId) {
+        index.remove(coffeeId);
+    }
+
+    // cambio hecho en otra instancia: se vuelve a leer de la base de datos
+    @Override
+    public void onChange(EntityChange change) {
+        if (EntityChange.COFFEE.equals(change.entity())) {
+            coffeeRepository.findById(change.id()).ifPresentOrElse(this::put, () -> remove(change.id()));
+        }
+    }
+
+    @Override
+    public void onReset() {
+        rebuild();
+    }
+
+    public List<Coffee> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    // copia desacoplada de la sesion de Hibernate
+    private static Coffee copyOf(Coffee coffee) {
+        Coffee copy = new Coffee(coffee.getName(), coffee.getPrice(), coffee.getImageUrl());
+        copy.setId(coffee.getId());
+        return copy;
+    }
+}
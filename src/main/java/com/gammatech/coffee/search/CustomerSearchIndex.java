@@ -0,0 +1,64 @@
+package com.gammatech.coffee.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationListener;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.repository.CustomerRepository;
+
+// Indice de busqueda por nombre y email de cliente; se construye al arrancar, lo mantiene CustomerService
+// y se actualiza con los cambios que avisan las demas instancias
+@Component
+public class CustomerSearchIndex implements InvalidationListener {
+
+    private final CustomerRepository customerRepository;
+    private final PrefixSearchIndex<Customer> index = new PrefixSearchIndex<>(Customer::getId,
+            customer -> Arrays.asList(customer.getName(), customer.getEmail()));
+
+    public CustomerSearchIndex(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.rebuild(customerRepository.findAll().stream().map(CustomerSearchIndex::copyOf).toList());
+    }
+
+    public void put(Customer customer) {
+        index.put(copyOf(customer));
+    }
+
+    public void remove(Long customerId) {
+        index.remove(customerId);
+    }
+
+    // cambio hecho en otra instancia: se vuelve a leer de la base de datos
+    @Override
+    public void onChange(EntityChange change) {
+        if (EntityChange.CUSTOMER.equals(change.entity())) {
+            customerRepository.findById(change.id()).ifPresentOrElse(this::put, () -> remove(change.id()));
+        }
+    }
+
+    @Override
+    public void onReset() {
+        rebuild();
+    }
+
+    public List<Customer> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    // copia desacoplada de la sesion de Hibernate
+    private static Customer copyOf(Customer customer) {
+        Customer copy = new Customer(customer.getName(), customer.getEmail(), customer.getPhone());
+        copy.setId(customer.getId());
+        return copy;
+    }
+}
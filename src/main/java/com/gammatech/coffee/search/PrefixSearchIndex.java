@@ -0,0 +1,186 @@
+package com.gammatech.coffee.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/*
+ * Indice en memoria de prefijos (edge n-grams) por palabra.
+ * Cada palabra de los campos indexados genera sus prefijos hasta MAX_PREFIX_LENGTH,
+ * y cada prefijo apunta a los ids de los documentos que lo contienen.
+ * Las escrituras se serializan; las lecturas no bloquean.
+ * rebuild() llena un indice nuevo y lo publica de una vez: mientras tanto las busquedas siguen viendo el anterior.
+ */
+public class PrefixSearchIndex<T> {
+
+    private static final int MAX_PREFIX_LENGTH = 12;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final Function<T, Long> idOf;
+    private final Function<T, List<String>> fieldsOf;
+
+    private volatile Snapshot<T> current = new Snapshot<>();
+
+    // el primer campo es el principal: se usa para ordenar los resultados
+    public PrefixSearchIndex(Function<T, Long> idOf, Function<T, List<String>> fieldsOf) {
+        this.idOf = idOf;
+        this.fieldsOf = fieldsOf;
+    }
+
+    public synchronized void put(T document) {
+        put(current, document);
+    }
+
+    public synchronized void remove(Long id) {
+        remove(current, id);
+    }
+
+    public synchronized void rebuild(Collection<T> all) {
+        Snapshot<T> rebuilt = new Snapshot<>();
+        all.forEach(document -> put(rebuilt, document));
+        current = rebuilt;
+    }
+
+    public int size() {
+        return current.documents().size();
+    }
+
+    public List<T> search(String query, int limit) {
+        String normalized = normalize(query);
+        List<String> tokens = tokenize(normalized);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot<T> snapshot = current;
+
+        // interseccion empezando por la lista de ids mas corta
+        List<Set<Long>> candidates = new ArrayList<>();
+        for (String token : tokens) {
+            Set<Long> ids = snapshot.postings().get(prefix(token));
+            if (ids == null) {
+                return List.of();
+            }
+            candidates.add(ids);
+        }
+        candidates.sort(Comparator.comparingInt(Set::size));
+
+        Comparator<Hit<T>> ranking = Comparator.<Hit<T>>comparingInt(Hit::score)
+                .thenComparingInt(hit -> hit.entry().fields().get(0).length())
+                .thenComparing(hit -> hit.entry().fields().get(0));
+        PriorityQueue<Hit<T>> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+
+        for (Long id : candidates.get(0)) {
+            Entry<T> entry = snapshot.documents().get(id);
+            if (entry == null || !matchesAll(entry, tokens, candidates, id)) {
+                continue;
+            }
+            top.add(new Hit<>(entry, entry.fields().get(0).startsWith(normalized) ? 0 : 1));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit<T>> hits = new ArrayList<>(top);
+        hits.sort(ranking);
+        return hits.stream().map(hit -> hit.entry().document()).toList();
+    }
+
+    // METODOS
+
+    private void put(Snapshot<T> snapshot, T document) {
+        Long id = idOf.apply(document);
+        remove(snapshot, id);
+        List<String> fields = fieldsOf.apply(document).stream()
+                .map(PrefixSearchIndex::normalize)
+                .toList();
+        Set<String> keys = new HashSet<>();
+        for (String field : fields) {
+            for (String token : tokenize(field)) {
+                for (int length = 1; length <= Math.min(token.length(), MAX_PREFIX_LENGTH); length++) {
+                    keys.add(token.substring(0, length));
+                }
+            }
+        }
+        for (String key : keys) {
+            snapshot.postings().computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        snapshot.documents().put(id, new Entry<>(document, fields, keys));
+    }
+
+    private static void remove(Snapshot<?> snapshot, Long id) {
+        Entry<?> previous = snapshot.documents().remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : previous.keys()) {
+            Set<Long> ids = snapshot.postings().get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    snapshot.postings().remove(key);
+                }
+            }
+        }
+    }
+
+    private boolean matchesAll(Entry<T> entry, List<String> tokens, List<Set<Long>> candidates, Long id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            if (!candidates.get(i).contains(id)) {
+                return false;
+            }
+        }
+        // los prefijos se truncan a MAX_PREFIX_LENGTH: se comprueban las palabras largas completas
+        for (String token : tokens) {
+            if (token.length() > MAX_PREFIX_LENGTH && entry.fields().stream()
+                    .noneMatch(field -> tokenize(field).stream().anyMatch(word -> word.startsWith(token)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String prefix(String token) {
+        return token.length() > MAX_PREFIX_LENGTH ? token.substring(0, MAX_PREFIX_LENGTH) : token;
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Snapshot<T>(Map<Long, Entry<T>> documents, Map<String, Set<Long>> postings) {
+        Snapshot() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private record Entry<T>(T document, List<String> fields, Set<String> keys) {
+    }
+
+    private record Hit<T>(Entry<T> entry, int score) {
+    }
+}
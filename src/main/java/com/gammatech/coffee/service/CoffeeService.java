@@ -1,73 +1,123 @@
 package com.gammatech.coffee.service;
 import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.OrderRepository;
 import com.gammatech.coffee.exceptions.ResourceAlreadyExistsException;
+import com.gammatech.coffee.exceptions.ResourceInUseException;
 import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationBus;
+import com.gammatech.coffee.menu.MenuSnapshot;
 import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.search.CoffeeSearchIndex;
+import com.gammatech.coffee.sharding.ReferenceDataReplicator;
+import com.gammatech.coffee.sharding.ShardRouter;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class CoffeeService {
 
-    private final CoffeeRepository coffeeRepository;
+    private static final Sort BY_ID = Sort.by("id");
 
-    public CoffeeService(CoffeeRepository coffeeRepository) {
+    private final CoffeeRepository coffeeRepository;
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+    private final CoffeeSearchIndex coffeeSearchIndex;
+    private final InvalidationBus invalidationBus;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final OrderViewProjector orderViewProjector;
+    private final MenuSnapshot menuSnapshot;
+    private final SingleFlight<Long, Coffee> coffeeLookups;
+
+    public CoffeeService(CoffeeRepository coffeeRepository, OrderRepository orderRepository,
+            CoffeeSearchIndex coffeeSearchIndex, InvalidationBus invalidationBus,
+            ReferenceDataReplicator referenceDataReplicator, OrderViewProjector orderViewProjector,
+            ShardRouter shardRouter, MenuSnapshot menuSnapshot, MeterRegistry meterRegistry) {
         this.coffeeRepository = coffeeRepository;
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+        this.coffeeSearchIndex = coffeeSearchIndex;
+        this.invalidationBus = invalidationBus;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.orderViewProjector = orderViewProjector;
+        this.menuSnapshot = menuSnapshot;
+        this.coffeeLookups = new SingleFlight<>("coffee", meterRegistry);
     }
 
-    // select * from coffee
+    // select * from coffee order by id
     public List<Coffee> getAllCoffees() {
-        return coffeeRepository.findAll();
+        return coffeeRepository.findAll(BY_ID);
     }
 
     // select * from coffee limit 10 offset 10
     public Page<Coffee> getAllPageable(int page, int pageSize) {
-        Pageable pageable = PageRequest.of(page, pageSize);
+        // por id, como las paginas que sirve MenuSnapshot: las siguientes continuan donde acaban las cacheadas
+        Pageable pageable = PageRequest.of(page, pageSize, BY_ID);
         return  coffeeRepository.findAll(pageable);
     }
 
+    // las peticiones simultaneas por el mismo id comparten una sola consulta
     public Coffee getCoffeeById(Long coffeeId) {
-        return coffeeRepository.findById(coffeeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cafe  con el id '" + coffeeId + "' no encontrado"));
+        return coffeeLookups.load(coffeeId, () -> coffeeRepository.findById(coffeeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cafe  con el id '%s' no encontrado", coffeeId)));
+    }
 
+    // busqueda por prefijo sobre el indice en memoria, sin consultar la base de datos
+    public List<Coffee> searchCoffees(String query, int limit) {
+        return coffeeSearchIndex.search(query, limit);
     }
     
     @Transactional
     public Coffee createCoffee(Coffee coffeeRequest) {
         // campo unico
         if (coffeeRepository.existsByName(coffeeRequest.getName())) {
-            throw new ResourceAlreadyExistsException("Ya existe un café con el nombre: " + coffeeRequest.getName());
+            throw new ResourceAlreadyExistsException("Ya existe un café con el nombre: %s", coffeeRequest.getName());
         }
         validateData(coffeeRequest);
-        return coffeeRepository.save(coffeeRequest);
+        Coffee savedCoffee = coffeeRepository.save(coffeeRequest);
+        invalidationBus.publish(EntityChange.COFFEE, savedCoffee.getId());
+        AfterCommit.run(() -> coffeeSearchIndex.put(savedCoffee));
+        AfterCommit.run(menuSnapshot::invalidate);
+        AfterCommit.run(() -> referenceDataReplicator.putCoffees(List.of(savedCoffee)));
+        return savedCoffee;
     }
 
     @Transactional
     public Coffee updateCoffee(Long coffeeId, Coffee coffeeRequest) {
         Coffee existingCoffee = coffeeRepository.findById(coffeeId)
-            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: " + coffeeId));
+            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: %s", coffeeId));
 
         validateData(coffeeRequest);
 
         if (!existingCoffee.getName().equals(coffeeRequest.getName()) && 
             coffeeRepository.existsByName(coffeeRequest.getName())) {
-            throw new ResourceAlreadyExistsException("Ya existe un café con el nombre: " + coffeeRequest.getName());
+            throw new ResourceAlreadyExistsException("Ya existe un café con el nombre: %s", coffeeRequest.getName());
         }
         existingCoffee.setName(coffeeRequest.getName());
         existingCoffee.setPrice(coffeeRequest.getPrice());
         existingCoffee.setImageUrl(coffeeRequest.getImageUrl());
-        return coffeeRepository.save(existingCoffee);
+        Coffee savedCoffee = coffeeRepository.save(existingCoffee);
+        invalidationBus.publish(EntityChange.COFFEE, savedCoffee.getId());
+        AfterCommit.run(() -> coffeeSearchIndex.put(savedCoffee));
+        AfterCommit.run(menuSnapshot::invalidate);
+        AfterCommit.run(() -> referenceDataReplicator.putCoffees(List.of(savedCoffee)));
+        AfterCommit.run(() -> orderViewProjector.refreshCoffee(savedCoffee.getId()));
+        return savedCoffee;
     }
 
     @Transactional
     public Coffee updateCoffeeImageUrl(Long coffeeId, String imageUrl) {
         // Verificar si existe el café
         Coffee existingCoffee = coffeeRepository.findById(coffeeId)
-            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: " + coffeeId));
+            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: %s", coffeeId));
         // Validar que el imageUrl nuevo no sea nulo ni vacío
 
         if (imageUrl == null || imageUrl.trim().isEmpty()) {
@@ -75,20 +125,35 @@ public class CoffeeService {
         }
         // Actualizar solo el campo imageUrl
         existingCoffee.setImageUrl(imageUrl);
-        return coffeeRepository.save(existingCoffee);
+        Coffee savedCoffee = coffeeRepository.save(existingCoffee);
+        invalidationBus.publish(EntityChange.COFFEE, savedCoffee.getId());
+        AfterCommit.run(() -> coffeeSearchIndex.put(savedCoffee));
+        AfterCommit.run(menuSnapshot::invalidate);
+        AfterCommit.run(() -> referenceDataReplicator.putCoffees(List.of(savedCoffee)));
+        AfterCommit.run(() -> orderViewProjector.refreshCoffee(savedCoffee.getId()));
+        return savedCoffee;
     }
 
     @Transactional
     public void deleteCoffee(Long coffeeId) {
         Coffee deleteCoffee = coffeeRepository.findById(coffeeId)
-            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: " + coffeeId));
+            .orElseThrow(() -> new ResourceNotFoundException("No se encontró el café con ID: %s", coffeeId));
+        // una sola consulta EXISTS por shard en lugar de esperar al error de clave foranea
+        if (shardRouter.anyMatch(() -> orderRepository.existsByItemsCoffeeId(coffeeId))) {
+            throw new ResourceInUseException("No se puede borrar el café con ID: %s, hay pedidos que lo incluyen", coffeeId);
+        }
         coffeeRepository.delete(deleteCoffee);
+        invalidationBus.publish(EntityChange.COFFEE, coffeeId);
+        AfterCommit.run(() -> coffeeSearchIndex.remove(coffeeId));
+        AfterCommit.run(menuSnapshot::invalidate);
+        AfterCommit.run(() -> referenceDataReplicator.removeCoffee(coffeeId));
     }
 
 
     
     // METODOS
-    private void validateData(Coffee coffee) {
+    // tambien la usa CsvImportService
+    void validateData(Coffee coffee) {
         if (coffee.getName() == null || coffee.getName().trim().isEmpty() ||
                 coffee.getImageUrl() == null || coffee.getImageUrl().trim().isEmpty() ||
                 coffee.getPrice() <= 0) {
@@ -0,0 +1,253 @@
+package com.gammatech.coffee.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gammatech.coffee.imports.CsvReader;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.responses.ImportReport;
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationBus;
+import com.gammatech.coffee.menu.MenuSnapshot;
+import com.gammatech.coffee.search.CoffeeSearchIndex;
+import com.gammatech.coffee.search.CustomerSearchIndex;
+import com.gammatech.coffee.sharding.ReferenceDataReplicator;
+
+import jakarta.persistence.EntityManager;
+
+/*
+ * Importacion masiva desde CSV. El fichero se lee en streaming y se procesa por lotes:
+ * validacion con las mismas reglas que el alta individual, una consulta IN por lote para la
+ * unicidad y saveAll en su propia transaccion (Hibernate agrupa los INSERT con hibernate.jdbc.batch_size).
+ * Si la base de datos rechaza el lote, ese lote se repite fila a fila y las filas rechazadas van al informe.
+ */
+@Service
+public class CsvImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
+    private static final int CHUNK_SIZE = 500;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final CustomerService customerService;
+    private final CoffeeService coffeeService;
+    private final CustomerRepository customerRepository;
+    private final CoffeeRepository coffeeRepository;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CoffeeSearchIndex coffeeSearchIndex;
+    private final InvalidationBus invalidationBus;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final MenuSnapshot menuSnapshot;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public CsvImportService(CustomerService customerService, CoffeeService coffeeService,
+            CustomerRepository customerRepository, CoffeeRepository coffeeRepository,
+            CustomerSearchIndex customerSearchIndex, CoffeeSearchIndex coffeeSearchIndex,
+            InvalidationBus invalidationBus, ReferenceDataReplicator referenceDataReplicator,
+            MenuSnapshot menuSnapshot, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.customerService = customerService;
+        this.coffeeService = coffeeService;
+        this.customerRepository = customerRepository;
+        this.coffeeRepository = coffeeRepository;
+        this.customerSearchIndex = customerSearchIndex;
+        this.coffeeSearchIndex = coffeeSearchIndex;
+        this.invalidationBus = invalidationBus;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.menuSnapshot = menuSnapshot;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // columnas: name,email[,phone]
+    public ImportReport importCustomers(InputStream input) throws IOException {
+        return importRows(input, new Target<Customer>(
+                new String[] { "name", "email" },
+                row -> {
+                    Customer customer = new Customer(row.get("name"), row.get("email"), row.get("phone"));
+                    customerService.validateCustomer(customer);
+                    return customer;
+                },
+                Customer::getEmail,
+                customerRepository::findExistingEmails,
+                "Ya existe un cliente con el email: ",
+                customerRepository::saveAllAndFlush,
+                customer -> customer.setId(null),
+                customer -> new EntityChange(EntityChange.CUSTOMER, customer.getId()),
+                customers -> {
+                    referenceDataReplicator.putCustomers(customers);
+                    customers.forEach(customerSearchIndex::put);
+                }));
+    }
+
+    // columnas: name,price,imageUrl
+    public ImportReport importCoffees(InputStream input) throws IOException {
+        return importRows(input, new Target<Coffee>(
+                new String[] { "name", "price", "imageUrl" },
+                row -> {
+                    Coffee coffee = new Coffee(row.get("name"), parsePrice(row.get("price")), row.get("imageUrl"));
+                    coffeeService.validateData(coffee);
+                    return coffee;
+                },
+                Coffee::getName,
+                coffeeRepository::findExistingNames,
+                "Ya existe un café con el nombre: ",
+                coffeeRepository::saveAllAndFlush,
+                coffee -> coffee.setId(null),
+                coffee -> new EntityChange(EntityChange.COFFEE, coffee.getId()),
+                coffees -> {
+                    referenceDataReplicator.putCoffees(coffees);
+                    coffees.forEach(coffeeSearchIndex::put);
+                    menuSnapshot.invalidate();
+                }));
+    }
+
+    // METODOS
+
+    private <T> ImportReport importRows(InputStream input, Target<T> target) throws IOException {
+        ImportReport report = new ImportReport();
+        // claves ya vistas en el fichero, para detectar duplicados entre lotes
+        Set<String> seenKeys = new HashSet<>();
+        try (CsvReader reader = new CsvReader(input)) {
+            reader.requireColumns(target.requiredColumns());
+            List<Pending<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+            CsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                report.rowRead();
+                T entity;
+                try {
+                    entity = target.parser().apply(row);
+                } catch (IllegalArgumentException ex) {
+                    report.rowFailed(row.getLine(), ex.getMessage());
+                    continue;
+                }
+                String key = target.key().apply(entity);
+                if (!seenKeys.add(collationKey(key))) {
+                    report.rowFailed(row.getLine(), "Valor duplicado en el fichero: " + key);
+                    continue;
+                }
+                chunk.add(new Pending<>(row.getLine(), key, entity));
+                if (chunk.size() == CHUNK_SIZE) {
+                    flushChunk(chunk, target, report);
+                    chunk.clear();
+                }
+            }
+            flushChunk(chunk, target, report);
+        }
+        return report;
+    }
+
+    private <T> void flushChunk(List<Pending<T>> chunk, Target<T> target, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Pending<T>> duplicates = new ArrayList<>();
+        int saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Set<String> existing = collationKeys(target.existingKeys()
+                        .apply(chunk.stream().map(Pending::key).toList()));
+                List<T> toInsert = new ArrayList<>(chunk.size());
+                for (Pending<T> pending : chunk) {
+                    if (existing.contains(collationKey(pending.key()))) {
+                        duplicates.add(pending);
+                    } else {
+                        toInsert.add(pending.entity());
+                    }
+                }
+                return save(toInsert, target);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // otra escritura a la vez o una restriccion que la comprobacion no vio: se reintenta fila a fila
+            log.warn("Lote de importacion rechazado, se guarda fila a fila: {}", ex.getMostSpecificCause().getMessage());
+            chunk.forEach(pending -> target.clearId().accept(pending.entity()));
+            flushRows(chunk, target, report);
+            return;
+        }
+        duplicates.forEach(pending -> report.rowFailed(pending.line(), target.duplicateMessage() + pending.key()));
+        report.rowsImported(saved);
+    }
+
+    private <T> void flushRows(List<Pending<T>> chunk, Target<T> target, ImportReport report) {
+        for (Pending<T> pending : chunk) {
+            try {
+                boolean duplicate = transactionTemplate.execute(status -> {
+                    if (!target.existingKeys().apply(List.of(pending.key())).isEmpty()) {
+                        return true;
+                    }
+                    save(List.of(pending.entity()), target);
+                    return false;
+                });
+                if (duplicate) {
+                    report.rowFailed(pending.line(), target.duplicateMessage() + pending.key());
+                } else {
+                    report.rowsImported(1);
+                }
+            } catch (DataIntegrityViolationException ex) {
+                target.clearId().accept(pending.entity());
+                report.rowFailed(pending.line(), target.duplicateMessage() + pending.key());
+            }
+        }
+    }
+
+    // dentro de la transaccion del lote o de la fila
+    private <T> int save(List<T> toInsert, Target<T> target) {
+        List<T> saved = target.saver().apply(toInsert);
+        entityManager.clear();
+        if (!saved.isEmpty()) {
+            invalidationBus.publish(saved.stream().map(target.change()).toList());
+        }
+        AfterCommit.run(() -> target.afterCommit().accept(saved));
+        return saved.size();
+    }
+
+    // las claves unicas se comparan como la collation de MySQL (utf8mb4_0900_ai_ci): sin mayusculas ni acentos
+    static String collationKey(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> collationKeys(Collection<String> values) {
+        Set<String> keys = new HashSet<>();
+        values.forEach(value -> keys.add(collationKey(value)));
+        return keys;
+    }
+
+    private static Double parsePrice(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Datos inválidos");
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Precio inválido: " + value);
+        }
+    }
+
+    private record Pending<T>(int line, String key, T entity) {
+    }
+
+    private record Target<T>(String[] requiredColumns, Function<CsvReader.Row, T> parser, Function<T, String> key,
+            Function<Collection<String>, List<String>> existingKeys, String duplicateMessage,
+            Function<List<T>, List<T>> saver, Consumer<T> clearId, Function<T, EntityChange> change, Consumer<List<T>> afterCommit) {
+    }
+}
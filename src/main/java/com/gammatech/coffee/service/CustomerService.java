@@ -7,20 +7,47 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.gammatech.coffee.exceptions.ResourceAlreadyExistsException;
+import com.gammatech.coffee.exceptions.ResourceInUseException;
 import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+import com.gammatech.coffee.invalidation.EntityChange;
+import com.gammatech.coffee.invalidation.InvalidationBus;
 import com.gammatech.coffee.models.Customer;
 import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.search.CustomerSearchIndex;
+import com.gammatech.coffee.sharding.ReferenceDataReplicator;
+import com.gammatech.coffee.sharding.ShardRouter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
-
-    public CustomerService(CustomerRepository customerRepository) {
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final InvalidationBus invalidationBus;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final OrderViewProjector orderViewProjector;
+    private final SingleFlight<Long, Customer> customerLookups;
+
+    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository,
+            CustomerSearchIndex customerSearchIndex, InvalidationBus invalidationBus,
+            ReferenceDataReplicator referenceDataReplicator, OrderViewProjector orderViewProjector,
+            ShardRouter shardRouter, MeterRegistry meterRegistry) {
         this.customerRepository = customerRepository;
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+        this.customerSearchIndex = customerSearchIndex;
+        this.invalidationBus = invalidationBus;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.orderViewProjector = orderViewProjector;
+        this.customerLookups = new SingleFlight<>("customer", meterRegistry);
     }
 
     public List<Customer> getAllCustomers() {
@@ -32,41 +59,56 @@ public class CustomerService {
         return customerRepository.findAll(pageable);
     }
 
+    // las peticiones simultaneas por el mismo id comparten una sola consulta
     public Customer getCustomerById(Long customerId) {
-        return customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cliente  con el id '" + customerId + "' no encontrado"));
+        return customerLookups.load(customerId, () -> customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente  con el id '%s' no encontrado", customerId)));
+    }
+
+    // busqueda por prefijo de nombre o email sobre el indice en memoria
+    public List<Customer> searchCustomers(String query, int limit) {
+        return customerSearchIndex.search(query, limit);
     }
     
     @Transactional
     public Customer createCustomer(Customer customerRequest) {
         if (customerRepository.existsByEmail(customerRequest.getEmail())) {
-            throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: " + customerRequest.getEmail());
+            throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: %s", customerRequest.getEmail());
         }
         validateCustomer(customerRequest);
-        return customerRepository.save(customerRequest);
+        Customer savedCustomer = customerRepository.save(customerRequest);
+        invalidationBus.publish(EntityChange.CUSTOMER, savedCustomer.getId());
+        AfterCommit.run(() -> customerSearchIndex.put(savedCustomer));
+        AfterCommit.run(() -> referenceDataReplicator.putCustomers(List.of(savedCustomer)));
+        return savedCustomer;
     }
 
     @Transactional
     public Customer updateCustomer(Long customerId, Customer customerRequest) {
         Customer existingCustomer= customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: " + customerId));
+                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: %s", customerId));
         validateCustomer(customerRequest);
 
         if (!existingCustomer.getEmail().equals(customerRequest.getEmail()) &&
                 customerRepository.existsByEmail(customerRequest.getEmail())) {
-            throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: " + customerRequest.getEmail());
+            throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: %s", customerRequest.getEmail());
         }
         existingCustomer.setName(customerRequest.getName());
         existingCustomer.setEmail(customerRequest.getEmail());
         existingCustomer.setPhone(customerRequest.getPhone());
-        return customerRepository.save(existingCustomer);
+        Customer savedCustomer = customerRepository.save(existingCustomer);
+        invalidationBus.publish(EntityChange.CUSTOMER, savedCustomer.getId());
+        AfterCommit.run(() -> customerSearchIndex.put(savedCustomer));
+        AfterCommit.run(() -> referenceDataReplicator.putCustomers(List.of(savedCustomer)));
+        AfterCommit.run(() -> orderViewProjector.refreshCustomer(savedCustomer.getId()));
+        return savedCustomer;
     }
 
     @Transactional
     public Customer updateCustomerEmail(Long customerId, String email) {
          // Verificar si existe el café
          Customer existingCustomer = customerRepository.findById(customerId)
-                 .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: " + customerId));
+                 .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: %s", customerId));
 
          if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("El email esta mal construido");
@@ -74,23 +116,36 @@ public class CustomerService {
 
       Customer emailExists = customerRepository.findByEmail(email);
       if (emailExists != null && !emailExists.getId().equals(customerId)) {
-        throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: " + email);
+        throw new ResourceAlreadyExistsException("Ya existe un cliente con el email: %s", email);
       }
          // Actualizar solo el campo email
          existingCustomer.setEmail(email);
-         return customerRepository.save(existingCustomer);
+         Customer savedCustomer = customerRepository.save(existingCustomer);
+         invalidationBus.publish(EntityChange.CUSTOMER, savedCustomer.getId());
+         AfterCommit.run(() -> customerSearchIndex.put(savedCustomer));
+         AfterCommit.run(() -> referenceDataReplicator.putCustomers(List.of(savedCustomer)));
+         AfterCommit.run(() -> orderViewProjector.refreshCustomer(savedCustomer.getId()));
+         return savedCustomer;
     }
 
     @Transactional
     public void deleteCustomer(Long customerId) {
         Customer deleteCustomer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: " + customerId));
+                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el cliente con ID: %s", customerId));
+        // una sola consulta EXISTS por shard en lugar de esperar al error de clave foranea
+        if (shardRouter.anyMatch(() -> orderRepository.existsByCustomerId(customerId))) {
+            throw new ResourceInUseException("No se puede borrar el cliente con ID: %s, tiene pedidos", customerId);
+        }
         customerRepository.delete(deleteCustomer);
+        invalidationBus.publish(EntityChange.CUSTOMER, customerId);
+        AfterCommit.run(() -> customerSearchIndex.remove(customerId));
+        AfterCommit.run(() -> referenceDataReplicator.removeCustomer(customerId));
     }
 
 
     // METODOS
-    private void validateCustomer(Customer customer) {
+    // tambien la usa CsvImportService
+    void validateCustomer(Customer customer) {
         if (customer.getName() == null || customer.getName().trim().isEmpty() ||
             customer.getEmail() == null || customer.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("Nombre y email del cliente son obligatorios");
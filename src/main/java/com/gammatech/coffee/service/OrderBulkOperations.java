@@ -0,0 +1,119 @@
+package com.gammatech.coffee.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gammatech.coffee.models.BulkStatusRequest;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.responses.BulkStatusResult;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Operaciones sobre muchos pedidos a la vez sin cargar entidades: cada lote de CHUNK_SIZE pedidos va en su propia
+ * transaccion corta (select ... for update de los ids + un UPDATE/DELETE por lote). Con sharding se recorre cada shard.
+ */
+@Service
+public class OrderBulkOperations {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_IDS = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final OrderViewProjector orderViewProjector;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderBulkOperations(OrderRepository orderRepository, OrderViewProjector orderViewProjector,
+            ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderViewProjector = orderViewProjector;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkStatusResult updateStatus(BulkStatusRequest request) {
+        OrderStatus target = request.status();
+        if (target == null) {
+            throw new IllegalArgumentException("El estado del pedido no puede ser nulo");
+        }
+        // PROCESSING lo asigna StationScheduler al reclamar el pedido un puesto (guarda station_id)
+        if (target == OrderStatus.PROCESSING) {
+            throw new IllegalArgumentException("Los pedidos pasan a PROCESSING al reclamarlos un puesto, no en bloque");
+        }
+        boolean byIds = request.ids() != null;
+        if (byIds == (request.fromStatus() != null)) {
+            throw new IllegalArgumentException("Se debe indicar la lista de ids o el estado de origen, no ambos");
+        }
+
+        List<Long> transitioned = new ArrayList<>();
+        List<Long> notTransitioned = new ArrayList<>();
+        if (byIds) {
+            Set<Long> ids = new LinkedHashSet<>(request.ids());
+            ids.remove(null);
+            if (ids.size() > MAX_IDS) {
+                throw new IllegalArgumentException("Como maximo se pueden cambiar " + MAX_IDS + " pedidos a la vez");
+            }
+            List<Integer> sources = target.previous().stream().map(OrderStatus::ordinal).toList();
+            List<Long> pending = new ArrayList<>(ids);
+            forEachShard(() -> {
+                for (int from = 0; from < pending.size() && !sources.isEmpty(); from += CHUNK_SIZE) {
+                    List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + CHUNK_SIZE));
+                    transitioned.addAll(transition(() -> orderRepository.lockIdsInStatus(chunk, sources), target));
+                }
+            });
+            Set<Long> done = Set.copyOf(transitioned);
+            ids.stream().filter(id -> !done.contains(id)).forEach(notTransitioned::add);
+        } else {
+            OrderStatus source = request.fromStatus();
+            if (!source.canTransitionTo(target)) {
+                throw new IllegalArgumentException("Un pedido no puede pasar de " + source + " a " + target);
+            }
+            LocalDateTime cutoff = request.olderThan() == null ? LocalDateTime.now()
+                    : LocalDateTime.now().minus(request.olderThan());
+            forEachShard(() -> {
+                List<Long> moved;
+                do {
+                    moved = transition(() -> orderRepository.lockIdsInStatusBefore(List.of(source.ordinal()), cutoff,
+                            CHUNK_SIZE), target);
+                    transitioned.addAll(moved);
+                } while (moved.size() == CHUNK_SIZE);
+            });
+        }
+        Collections.sort(transitioned);
+        return new BulkStatusResult(target, transitioned, notTransitioned);
+    }
+
+    // METODOS
+
+    private void forEachShard(Runnable action) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                action.run();
+                return null;
+            });
+        }
+    }
+
+    // un lote: bloquea los ids que cumplen la condicion y los actualiza junto con sus documentos de order_view
+    private List<Long> transition(Supplier<List<Long>> lockIds, OrderStatus target) {
+        return transactionTemplate.execute(status -> {
+            List<Long> locked = lockIds.get();
+            if (!locked.isEmpty()) {
+                orderRepository.updateStatusByIds(locked, target);
+                orderViewProjector.updateStatus(locked, target);
+            }
+            return locked;
+        });
+    }
+}
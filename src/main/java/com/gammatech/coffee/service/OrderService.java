@@ -1,133 +1,347 @@
 package com.gammatech.coffee.service;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.gammatech.coffee.archive.ArchivedOrderReader;
 import com.gammatech.coffee.exceptions.CoffeeOrderDuplicatedException;
 import com.gammatech.coffee.exceptions.ResourceNotFoundException;
 import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.CoffeeSale;
 import com.gammatech.coffee.models.Customer;
 import com.gammatech.coffee.models.Order;
 import com.gammatech.coffee.models.OrderItem;
 import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.projection.OrderViewProjector;
 import com.gammatech.coffee.repository.CoffeeRepository;
 import com.gammatech.coffee.repository.CustomerRepository;
 import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.sharding.ShardRouter;
+import com.gammatech.coffee.stations.StationScheduler;
+import com.gammatech.coffee.tracing.OrderTracer;
+import com.gammatech.coffee.trending.TrendingCoffees;
 
+import io.micrometer.core.instrument.MeterRegistry;
 
 
+
+/*
+ * Los pedidos se reparten entre shards por cliente (ShardRouter): las operaciones de un cliente van a su shard,
+ * las de un pedido por id lo localizan primero y los listados consultan todos los shards en paralelo.
+ */
 @Service
 public class OrderService {
-    
+
+    private static final Sort BY_ID = Sort.by("id");
+    private static final Comparator<Order> BY_ID_ORDER = Comparator.comparing(Order::getId);
+
     private final OrderRepository orderRepository;
     private final CoffeeRepository coffeeRepository;
     private final CustomerRepository customerRepository;
+    private final ArchivedOrderReader archivedOrderReader;
+    private final ShardRouter shardRouter;
+    private final OrderViewProjector orderViewProjector;
+    private final TrendingCoffees trendingCoffees;
+    private final StationScheduler stationScheduler;
+    private final OrderTracer tracer;
+    private final SingleFlight<Long, Order> orderLookups;
 
     public OrderService(OrderRepository orderRepository, CoffeeRepository coffeeRepository,
-            CustomerRepository customerRepository) {
+            CustomerRepository customerRepository, ArchivedOrderReader archivedOrderReader,
+            ShardRouter shardRouter, OrderViewProjector orderViewProjector, TrendingCoffees trendingCoffees,
+            StationScheduler stationScheduler, OrderTracer tracer, MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.coffeeRepository = coffeeRepository;
         this.customerRepository = customerRepository;
+        this.archivedOrderReader = archivedOrderReader;
+        this.shardRouter = shardRouter;
+        this.orderViewProjector = orderViewProjector;
+        this.trendingCoffees = trendingCoffees;
+        this.stationScheduler = stationScheduler;
+        this.tracer = tracer;
+        this.orderLookups = new SingleFlight<>("order", meterRegistry);
     }
 
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return shardRouter.scatterGather(() -> orderRepository.findAll(BY_ID), BY_ID_ORDER);
     }
 
+    // si ya no esta en la tabla caliente se busca en el archivo de pedidos entregados;
+    // las peticiones simultaneas por el mismo id comparten una sola consulta
     public Order getOrderById(Long orderId) {
-        return orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pedido  con el id '" + orderId + "' no encontrado"));
+        return orderLookups.load(orderId, () -> shardRouter.findFirst(() -> orderRepository.findFullById(orderId)
+                .or(() -> archivedOrderReader.findById(orderId)))
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido  con el id '%s' no encontrado", orderId)));
     }
 
     @Transactional
     public Order createOrder(Order orderRequest) {
-        Customer customer = validateCustomer(orderRequest.getCustomer());
-    
-        Order order = new Order(); // Primero creamos la orden
-        order.setCustomer(customer);
-        order.setDateOrder(LocalDateTime.now());
-        order.setOrderStatus(OrderStatus.PENDING);
-    
-        List<OrderItem> orderItems = new ArrayList<>();
-        Set<Long> coffeeIds = new HashSet<>();
-    
-        for (OrderItem item : orderRequest.getItems()) {
-            OrderItem newItem = validateItem(item, coffeeIds,order);
-            orderItems.add(newItem);
+        try (OrderTracer.Phase trace = tracer.phase("createOrder")) {
+            bindCustomerShard(orderRequest.getCustomer());
+            Customer customer;
+            try (OrderTracer.Phase phase = tracer.phase("validateCustomer")) {
+                customer = validateCustomer(orderRequest.getCustomer());
+            }
+
+            Order order = new Order(); // Primero creamos la orden
+            order.setCustomer(customer);
+            // misma precision que la columna: el JSON devuelto coincide con el que se lee despues
+            order.setDateOrder(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            order.setOrderStatus(OrderStatus.PENDING);
+
+            List<OrderItem> orderItems = new ArrayList<>();
+            Set<Long> coffeeIds = new HashSet<>();
+
+            try (OrderTracer.Phase phase = tracer.phase("validateItems")) {
+                for (OrderItem item : orderRequest.getItems()) {
+                    OrderItem newItem = validateItem(item, coffeeIds,order);
+                    orderItems.add(newItem);
+                }
+                phase.items(orderItems.size());
+            }
+            trace.items(orderItems.size());
+
+            order.setItems(orderItems);
+            try (OrderTracer.Phase phase = tracer.phase("calculateTotal")) {
+                order.setTotal(order.calculateTotal());
+            }
+            recordSales(order, Map.of());
+            return project(save(order));
         }
-    
-        order.setItems(orderItems);
-        order.setTotal(order.calculateTotal());
-        return orderRepository.save(order);
-      
     }
    
 
     @Transactional
     public Order updateOrder(Long id, Order orderRequest) {
-        Order existingOrder = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("El pedido con ID: " + id + " no existe"));
+        try (OrderTracer.Phase trace = tracer.phase("updateOrder").orderId(id)) {
+            int shard;
+            Order existingOrder;
+            try (OrderTracer.Phase phase = tracer.phase("loadOrder")) {
+                shard = bindOrderShard(id);
+                existingOrder = findPendingOrder(id);
+            }
+            Map<Long, Integer> before = quantitiesOf(existingOrder);
 
-        if (existingOrder.getOrderStatus() != OrderStatus.PENDING) {
-            throw new IllegalStateException("Solo se pueden modificar pedidos en estado PENDING");
+            try (OrderTracer.Phase phase = tracer.phase("validateCustomer")) {
+                Customer customer = validateCustomer(orderRequest.getCustomer());
+                if (shardRouter.shardOf(customer.getId()) != shard) {
+                    throw new IllegalArgumentException("No se puede pasar el pedido a un cliente de otro shard");
+                }
+                existingOrder.setCustomer(customer);
+            }
+
+            // cantidades pedidas por id de cafe; las lineas que ya no aparecen se eliminan
+            try (OrderTracer.Phase phase = tracer.phase("mergeItems")) {
+                Map<Long, Integer> quantities = collectQuantities(orderRequest.getItems(), false);
+                existingOrder.getItems().removeIf(item -> !quantities.containsKey(item.getCoffee().getId()));
+                mergeItems(existingOrder, quantities);
+                phase.items(existingOrder.getItems().size());
+            }
+            trace.items(existingOrder.getItems().size());
+            recordSales(existingOrder, before);
+            return project(save(existingOrder));
         }
-    
-        Customer customer = validateCustomer(orderRequest.getCustomer());
-        existingOrder.setCustomer(customer);
-    
-        // Limpiar la lista anterior
-        existingOrder.getItems().clear();
-    
-        // Añadir los nuevos items, validándolos de nuevo si hace falta
-        for (OrderItem item : orderRequest.getItems()) {
-            OrderItem newItem = validateItem(item, new HashSet<>(), existingOrder);
-            existingOrder.getItems().add(newItem);
+    }
+
+    // Aplica solo los cambios indicados: cantidad > 0 inserta o actualiza la linea, cantidad 0 la elimina
+    @Transactional
+    public Order updateOrderItems(Long id, List<OrderItem> changes) {
+        bindOrderShard(id);
+        Order existingOrder = findPendingOrder(id);
+        Map<Long, Integer> before = quantitiesOf(existingOrder);
+
+        Map<Long, Integer> quantities = collectQuantities(changes, true);
+        existingOrder.getItems().removeIf(item -> Integer.valueOf(0).equals(quantities.get(item.getCoffee().getId())));
+        quantities.values().removeIf(quantity -> quantity == 0);
+        mergeItems(existingOrder, quantities);
+
+        if (existingOrder.getItems().isEmpty()) {
+            throw new IllegalArgumentException("El pedido debe tener al menos un café");
         }
-    
-        existingOrder.setTotal(existingOrder.calculateTotal());
-        return orderRepository.save(existingOrder);
+        recordSales(existingOrder, before);
+        return project(orderRepository.saveAndFlush(existingOrder));
     }
     
 
     @Transactional
     public Order updateOrderStatus(Long id, OrderStatus status) {
+        bindOrderShard(id);
         // Validar que existe el order id
-        Order existingOrder = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("El pedido con ID: " + id + " no existe"));
+        Order existingOrder = findForUpdate(id);
         if (status == null) {
             throw new IllegalArgumentException("El estado del pedido no puede ser nulo");
         }
+        // como en los cambios en bloque, solo hacia delante: un pedido entregado no vuelve a la cola ni sale
+        // del archivado y el borrado
+        OrderStatus current = existingOrder.getOrderStatus();
+        if (current != null && !current.canTransitionTo(status)) {
+            throw new IllegalStateException("Un pedido no puede pasar de " + current + " a " + status);
+        }
         existingOrder.setOrderStatus(status);
-        return orderRepository.save(existingOrder);
+        return project(orderRepository.saveAndFlush(existingOrder));
     }
 
     @Transactional
     public void deleteOrder(Long id) {
-        Order existingOrder = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("El pedido con ID: " + id + " no existe"));
-        orderRepository.delete(existingOrder);
+        bindOrderShard(id);
+        // dos DELETE directos, sin cargar el pedido ni borrar las lineas una a una
+        List<Long> ids = List.of(id);
+        orderRepository.deleteItemsByOrderIds(ids);
+        if (orderRepository.deleteByIds(ids) == 0) {
+            throw new ResourceNotFoundException("El pedido con ID: %s no existe", id);
+        }
+        orderViewProjector.remove(id);
     }
 
     public List<Order> getOrdersByStatus(OrderStatus status) {
         if (status == null) {
             throw new IllegalArgumentException("El estado del pedido no puede ser nulo");
         }
-        return orderRepository.findByOrderStatus(status);
+        return shardRouter.scatterGather(() -> orderRepository.findByOrderStatus(status, BY_ID), BY_ID_ORDER);
     }
 
     public List<Order> getOrdersByCustomer(Long customerId) {
-        // Verificar que el cliente existe
-        customerRepository.findById(customerId)
-            .orElseThrow(() -> new ResourceNotFoundException("No existe el cliente con ID: " + customerId));
-        return orderRepository.findAllByCustomerId(customerId);
+        return shardRouter.onShardOf(customerId, () -> {
+            // Verificar que el cliente existe
+            Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("No existe el cliente con ID: %s", customerId));
+            List<Order> orders = new ArrayList<>(orderRepository.findAllByCustomerId(customerId));
+            orders.addAll(archivedOrderReader.findAllByCustomer(customer));
+            return orders;
+        });
     }
 
     // METODOS
 
+    private static Map<Long, Integer> quantitiesOf(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.put(item.getCoffee().getId(), item.getQuantity());
+        }
+        return quantities;
+    }
+
+    // unidades anadidas respecto a before; las reducciones no restan del ranking
+    private void recordSales(Order order, Map<Long, Integer> before) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CoffeeSale> sales = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            int added = item.getQuantity() - before.getOrDefault(item.getCoffee().getId(), 0);
+            if (added > 0) {
+                sales.add(new CoffeeSale(item.getCoffee().getId(), item.getCoffee().getName(), added, now));
+            }
+        }
+        if (!sales.isEmpty()) {
+            AfterCommit.run(() -> trendingCoffees.record(sales));
+        }
+    }
+
+    // flush dentro de la fase: el INSERT/UPDATE en cascada de las lineas cuenta en "save" y no en el commit
+    private Order save(Order order) {
+        try (OrderTracer.Phase phase = tracer.phase("save").orderId(order.getId()).items(order.getItems().size())) {
+            Order saved = orderRepository.saveAndFlush(order);
+            phase.orderId(saved.getId());
+            return saved;
+        }
+    }
+
+    // order_view en la misma transaccion (tras el flush, con la version ya incrementada); la cola de puestos cuando
+    // hace commit
+    private Order project(Order order) {
+        orderViewProjector.project(order);
+        AfterCommit.run(() -> stationScheduler.offer(order));
+        return order;
+    }
+
+    // antes de la primera consulta de la transaccion
+    private void bindCustomerShard(Customer customer) {
+        if (customer != null && customer.getId() != null) {
+            shardRouter.bind(shardRouter.shardOf(customer.getId()));
+        }
+    }
+
+    private int bindOrderShard(Long orderId) {
+        int shard = shardRouter.locate(() -> orderRepository.existsById(orderId));
+        shardRouter.bind(shard);
+        return shard;
+    }
+
+    private Order findForUpdate(Long id) {
+        orderRepository.lockById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("El pedido con ID: %s no existe", id));
+        return orderRepository.findFullById(id).orElseThrow();
+    }
+
+    private Order findPendingOrder(Long id) {
+        Order existingOrder = findForUpdate(id);
+
+        if (existingOrder.getOrderStatus() != OrderStatus.PENDING) {
+            throw new IllegalStateException("Solo se pueden modificar pedidos en estado PENDING");
+        }
+        return existingOrder;
+    }
+
+    private Map<Long, Integer> collectQuantities(List<OrderItem> items, boolean allowZero) {
+        if (items == null) {
+            throw new IllegalArgumentException("Debe haber al menos un café");
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            if (item.getCoffee() == null || item.getCoffee().getId() == null) {
+                throw new IllegalArgumentException("Debe haber al menos un café");
+            }
+            int quantity = allowZero && item.getQuantity() == 0 ? 0 : validateQuantity(item.getQuantity());
+            if (quantities.put(item.getCoffee().getId(), quantity) != null) {
+                throw CoffeeOrderDuplicatedException.INSTANCE;
+            }
+        }
+        return quantities;
+    }
+
+    // Actualiza en el sitio las lineas existentes y crea solo las nuevas; los cafes nuevos se cargan en una consulta
+    private void mergeItems(Order order, Map<Long, Integer> quantities) {
+        Map<Long, OrderItem> current = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            current.put(item.getCoffee().getId(), item);
+        }
+
+        List<Long> newCoffeeIds = quantities.keySet().stream()
+                .filter(coffeeId -> !current.containsKey(coffeeId))
+                .toList();
+        Map<Long, Coffee> newCoffees = new HashMap<>();
+        if (!newCoffeeIds.isEmpty()) {
+            for (Coffee coffee : coffeeRepository.findAllById(newCoffeeIds)) {
+                newCoffees.put(coffee.getId(), coffee);
+            }
+        }
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            OrderItem item = current.get(entry.getKey());
+            if (item == null) {
+                Coffee coffee = newCoffees.get(entry.getKey());
+                if (coffee == null) {
+                    throw new ResourceNotFoundException("No existe café con ID: %s", entry.getKey());
+                }
+                item = new OrderItem(order, coffee, entry.getValue());
+                order.getItems().add(item);
+            }
+            // Hibernate solo emite UPDATE si el valor cambia
+            item.setQuantity(entry.getValue());
+            item.setSubtotal(item.calculateSubtotal());
+        }
+        order.setTotal(order.calculateTotal());
+    }
+
     private OrderItem validateItem(OrderItem item, Set<Long> coffeeIds, Order order) {
         // que items tiene el orderitem
         // 1. coffee
@@ -138,7 +352,7 @@ public class OrderService {
     
         // validacion de que el cafe no se encuentre ya en el Set<Long> coffeeIds
         if (!coffeeIds.add(coffee.getId())) {
-            throw new CoffeeOrderDuplicatedException("No se permiten cafes duplicados");
+            throw CoffeeOrderDuplicatedException.INSTANCE;
         }
     
         OrderItem newItem = new OrderItem();
@@ -156,7 +370,7 @@ public class OrderService {
     
         // Devolvemos el cliente completo desde la base de datos
         return customerRepository.findById(customer.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("No existe el cliente con ID: " + customer.getId()));
+            .orElseThrow(() -> new ResourceNotFoundException("No existe el cliente con ID: %s", customer.getId()));
     }
 
     
@@ -168,7 +382,7 @@ public class OrderService {
     
         // Devolvemos el café completo desde la base de datos
         return coffeeRepository.findById(coffee.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("No existe café con ID: " + coffee.getId()));
+            .orElseThrow(() -> new ResourceNotFoundException("No existe café con ID: %s", coffee.getId()));
     }
     
 
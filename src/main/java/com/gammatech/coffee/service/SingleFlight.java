@@ -0,0 +1,117 @@
+package com.gammatech.coffee.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Agrupa las lecturas concurrentes de la misma clave: la primera peticion (lider) consulta la base de datos
+ * y las que llegan mientras tanto esperan y reciben el mismo resultado (o la misma excepcion).
+ * No es una cache: en cuanto el lider termina, la siguiente peticion vuelve a consultar.
+ * Las llamadas en curso se reparten en STRIPES mapas, cada uno con su propio lock.
+ * Dentro de una transaccion no se agrupa: el llamante necesita entidades de su propio contexto de persistencia.
+ * Metricas: coffee.singleflight.calls{name, outcome=leader|coalesced} y coffee.singleflight.coalescing_ratio{name}.
+ */
+public class SingleFlight<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe<K, V>[] stripes;
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    @SuppressWarnings("unchecked")
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.leaders = Counter.builder("coffee.singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "leader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("coffee.singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("coffee.singleflight.coalescing_ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        Stripe<K, V> stripe = stripes[(key.hashCode() ^ key.hashCode() >>> 16) & (STRIPES - 1)];
+        CompletableFuture<V> call;
+        boolean leader = false;
+        stripe.lock.lock();
+        try {
+            call = stripe.calls.get(key);
+            if (call == null) {
+                call = new CompletableFuture<>();
+                stripe.calls.put(key, call);
+                leader = true;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (!leader) {
+            coalesced.increment();
+            return await(call);
+        }
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            stripe.lock.lock();
+            try {
+                stripe.calls.remove(key, call);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    double coalescingRatio() {
+        double total = leaders.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    // METODOS
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Stripe<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, CompletableFuture<V>> calls = new HashMap<>();
+    }
+}
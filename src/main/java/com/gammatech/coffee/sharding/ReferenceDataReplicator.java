@@ -0,0 +1,184 @@
+package com.gammatech.coffee.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+
+/*
+ * Cafes y clientes son datos de referencia: se escriben con JPA en el shard 0 y se copian, con el mismo id,
+ * al resto de shards para que cada pedido tenga sus claves foraneas en su propia base de datos.
+ * Los servicios llaman a put/remove tras el commit. Si eso falla (o la instancia cae antes), la reconciliacion
+ * lo corrige: al arrancar y cada coffee.sharding.reconcile-interval se comparan las filas completas de cada shard
+ * con el shard 0 y se copian las que falten o difieran y se borran las que sobren.
+ */
+@Component
+@Lazy(false)
+public class ReferenceDataReplicator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataReplicator.class);
+
+    private static final Table<Coffee> COFFEE = new Table<>("coffee",
+            "update coffee set name = ?, price = ?, image_url = ? where id = ?",
+            "insert into coffee (name, price, image_url, id) values (?, ?, ?, ?)",
+            coffee -> new Object[] { coffee.getName(), coffee.getPrice(), coffee.getImageUrl(), coffee.getId() });
+    private static final Table<Customer> CUSTOMER = new Table<>("customer",
+            "update customer set name = ?, email = ?, phone = ? where id = ?",
+            "insert into customer (name, email, phone, id) values (?, ?, ?, ?)",
+            customer -> new Object[] { customer.getName(), customer.getEmail(), customer.getPhone(), customer.getId() });
+
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas = new ArrayList<>();
+
+    public ReferenceDataReplicator(ObjectProvider<ShardDataSources> shardDataSources) {
+        ShardDataSources shards = shardDataSources.getIfAvailable();
+        this.primary = shards == null ? null : new JdbcTemplate(shards.get(0));
+        for (int shard = 1; shards != null && shard < shards.size(); shard++) {
+            replicas.add(new JdbcTemplate(shards.get(shard)));
+        }
+    }
+
+    public void putCoffees(Collection<Coffee> coffees) {
+        put(COFFEE, coffees);
+    }
+
+    public void removeCoffee(Long coffeeId) {
+        remove(COFFEE, coffeeId);
+    }
+
+    public void putCustomers(Collection<Customer> customers) {
+        put(CUSTOMER, customers);
+    }
+
+    public void removeCustomer(Long customerId) {
+        remove(CUSTOMER, customerId);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${coffee.sharding.reconcile-interval:PT5M}",
+            fixedDelayString = "${coffee.sharding.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        reconcile(COFFEE, "select id, name, price, image_url from coffee");
+        reconcile(CUSTOMER, "select id, name, email, phone from customer");
+    }
+
+    // METODOS
+
+    private void reconcile(Table<?> table, String select) {
+        for (JdbcTemplate replica : replicas) {
+            try {
+                // primero la replica: una fila que esta en ella y ya no en el shard 0 se borro de verdad
+                Map<Long, List<Object>> actual = rows(replica, select);
+                Map<Long, List<Object>> expected = rows(primary, select);
+                // antes los borrados: una fila nueva puede reutilizar el nombre o email de una borrada
+                for (Long id : actual.keySet()) {
+                    if (!expected.containsKey(id)) {
+                        delete(replica, table, id);
+                    }
+                }
+                List<Object[]> changed = new ArrayList<>();
+                expected.forEach((id, values) -> {
+                    if (!values.equals(actual.get(id))) {
+                        changed.add(Table.row(id, values));
+                    }
+                });
+                if (!changed.isEmpty()) {
+                    log.info("Reconciliando {} en un shard: {} filas distintas o que faltan", table.name(), changed.size());
+                    upsert(replica, table, changed);
+                }
+            } catch (DataAccessException e) {
+                log.warn("No se pudo reconciliar {} en un shard: {}", table.name(), e.getMessage());
+            }
+        }
+    }
+
+    // id -> resto de columnas en el orden del select
+    private static Map<Long, List<Object>> rows(JdbcTemplate jdbcTemplate, String select) {
+        Map<Long, List<Object>> rows = new HashMap<>();
+        jdbcTemplate.query(select, rs -> {
+            int columns = rs.getMetaData().getColumnCount();
+            List<Object> values = new ArrayList<>(columns - 1);
+            for (int column = 2; column <= columns; column++) {
+                values.add(rs.getObject(column));
+            }
+            rows.put(rs.getLong(1), values);
+        });
+        return rows;
+    }
+
+    private <T> void put(Table<T> table, Collection<T> rows) {
+        if (replicas.isEmpty() || rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> values = rows.stream().map(table.values()).toList();
+        for (JdbcTemplate replica : replicas) {
+            try {
+                upsert(replica, table, values);
+            } catch (DataAccessException e) {
+                log.warn("No se pudo replicar {} en un shard; lo corregira la reconciliacion: {}", table.name(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void upsert(JdbcTemplate replica, Table<?> table, List<Object[]> values) {
+        int[] updated = replica.batchUpdate(table.update(), values);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(values.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            replica.batchUpdate(table.insert(), missing);
+        }
+    }
+
+    private void remove(Table<?> table, Long id) {
+        for (JdbcTemplate replica : replicas) {
+            delete(replica, table, id);
+        }
+    }
+
+    private static void delete(JdbcTemplate replica, Table<?> table, Long id) {
+        try {
+            replica.update("delete from " + table.name() + " where id = ?", id);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo borrar {} {} en un shard; lo reintentara la reconciliacion: {}", table.name(), id,
+                    e.getMessage());
+        }
+    }
+
+    // values: columnas de update/insert, con el id al final
+    private record Table<T>(String name, String update, String insert, Function<T, Object[]> values) {
+
+        static Object[] row(Long id, List<Object> columns) {
+            Object[] row = Arrays.copyOf(columns.toArray(), columns.size() + 1);
+            row[columns.size()] = id;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.gammatech.coffee.sharding;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Pools de conexiones de cada shard (el 0 es spring.datasource); no son beans DataSource para no competir con el principal
+public class ShardDataSources implements DisposableBean {
+
+    private final List<DataSource> shards;
+
+    public ShardDataSources(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public DataSource get(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<DataSource> all() {
+        return shards;
+    }
+
+    @Override
+    public void destroy() {
+        for (DataSource shard : shards) {
+            if (shard instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
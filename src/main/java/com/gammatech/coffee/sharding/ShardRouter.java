@@ -0,0 +1,185 @@
+package com.gammatech.coffee.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Decide en que shard se ejecuta cada operacion de pedidos:
+ * - por cliente (hash del id): crear pedido, historial del cliente -> un solo shard
+ * - por id de pedido: se busca en todos los shards en paralelo (locate / findFirst)
+ * - listados: scatter-gather en paralelo y mezcla de las listas ya ordenadas de cada shard
+ * Con un solo shard todo se ejecuta directamente, sin hilos ni consultas extra.
+ */
+@Component
+public class ShardRouter implements DisposableBean {
+
+    private final int shardCount;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardRouter(ObjectProvider<ShardDataSources> shardDataSources) {
+        ShardDataSources shards = shardDataSources.getIfAvailable();
+        this.shardCount = shards == null ? 1 : shards.size();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(Long customerId) {
+        return Math.floorMod(Long.hashCode(customerId * 0x9E3779B97F4A7C15L), shardCount);
+    }
+
+    // ejecuta fuera de transaccion sobre un shard; las transacciones que se abran dentro usan ese shard
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public <T> T onShardOf(Long customerId, Supplier<T> action) {
+        return onShard(shardOf(customerId), action);
+    }
+
+    /*
+     * Fija el shard para el resto de la transaccion actual. Debe llamarse antes de la primera consulta:
+     * la conexion real se pide entonces y ya no cambia hasta el commit.
+     */
+    public void bind(int shard) {
+        if (shardCount == 1) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("ShardRouter.bind requiere una transaccion activa");
+        }
+        Integer current = ShardContext.current();
+        if (current != null && current != shard) {
+            throw new IllegalStateException("La transaccion ya esta en el shard " + current);
+        }
+        ShardContext.set(shard);
+        if (current == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ShardContext.set(null);
+                }
+            });
+        }
+    }
+
+    // shard donde la condicion se cumple (p.ej. existe el pedido); si no se cumple en ninguno, el 0
+    public int locate(BooleanSupplier condition) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        List<Boolean> found = scatter(condition::getAsBoolean);
+        int shard = found.indexOf(Boolean.TRUE);
+        return shard < 0 ? 0 : shard;
+    }
+
+    // si la condicion se cumple en algun shard (p.ej. hay pedidos que usan un cafe)
+    public boolean anyMatch(BooleanSupplier condition) {
+        if (shardCount == 1) {
+            return condition.getAsBoolean();
+        }
+        return scatter(condition::getAsBoolean).contains(Boolean.TRUE);
+    }
+
+    // primer resultado no vacio, en orden de shard
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> lookup) {
+        if (shardCount == 1) {
+            return lookup.get();
+        }
+        return scatter(lookup).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    // consulta cada shard en paralelo; cada lista viene ordenada por order y se mezclan manteniendo ese orden
+    public <T> List<T> scatterGather(Supplier<List<T>> query, Comparator<? super T> order) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+        return merge(scatter(query), order);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // METODOS
+
+    private <T> List<T> scatter(Supplier<T> task) {
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> onShard(target, task)));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a los shards interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order) {
+        int total = sorted.stream().mapToInt(List::size).sum();
+        List<T> merged = new ArrayList<>(total);
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        for (List<T> list : sorted) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list, 0));
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.index() + 1 < cursor.list().size()) {
+                heads.add(new Cursor<>(cursor.list(), cursor.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private record Cursor<T>(List<T> list, int index) {
+        T head() {
+            return list.get(index);
+        }
+    }
+}
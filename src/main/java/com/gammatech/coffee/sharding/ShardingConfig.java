@@ -0,0 +1,72 @@
+package com.gammatech.coffee.sharding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Con coffee.sharding.enabled=true el DataSource de la aplicacion enruta cada conexion al shard del hilo.
+ * Es perezoso (LazyConnectionDataSourceProxy): la conexion real se pide en la primera sentencia,
+ * asi un metodo @Transactional puede elegir el shard (ShardRouter.bind) antes de consultar.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "coffee.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // cada shard reparte ids de pedidos y lineas desde su propio bloque de 2^40
+    static final long SHARD_ID_RANGE = 1L << 40;
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties primary, ShardingProperties properties) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(primary.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            shards.add(DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build());
+        }
+        return new ShardDataSources(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources.all()));
+    }
+
+    // mismas migraciones en todos los shards; cada uno arranca sus secuencias de pedidos en su bloque de ids
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardDataSources shardDataSources) {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < shardDataSources.size(); shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("shard_id_start", Long.toString(shard * SHARD_ID_RANGE + 1));
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardDataSources.get(shard))
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.gammatech.coffee.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Reparto de pedidos entre varias bases de datos (coffee.sharding.*)
+@ConfigurationProperties(prefix = "coffee.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    // shards adicionales; el shard 0 es spring.datasource y guarda tambien los datos de referencia.
+    // Cambiar el numero de shards cambia el reparto de clientes: no hay resharding automatico
+    private List<Shard> shards = new ArrayList<>();
+
+    // cada cuanto se comparan cafes y clientes de cada shard con el shard 0 (ReferenceDataReplicator)
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    public void setReconcileInterval(Duration reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.gammatech.coffee.stations;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Reparto de pedidos entre puestos de barista (coffee.stations.*)
+@ConfigurationProperties(prefix = "coffee.stations")
+public class StationProperties {
+
+    // cada cafe del pedido cuenta como este tiempo extra de espera al ordenar la cola
+    private Duration itemWeight = Duration.ofSeconds(30);
+
+    private Duration defaultTimeout = Duration.ofSeconds(20);
+
+    private Duration maxTimeout = Duration.ofSeconds(60);
+
+    // cada cuanto se recarga la cola desde la base de datos (pedidos de otras instancias o cambiados a mano)
+    private Duration resyncInterval = Duration.ofSeconds(30);
+
+    public Duration getItemWeight() {
+        return itemWeight;
+    }
+
+    public void setItemWeight(Duration itemWeight) {
+        this.itemWeight = itemWeight;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public Duration getResyncInterval() {
+        return resyncInterval;
+    }
+
+    public void setResyncInterval(Duration resyncInterval) {
+        this.resyncInterval = resyncInterval;
+    }
+}
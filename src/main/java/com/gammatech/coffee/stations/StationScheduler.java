@@ -0,0 +1,323 @@
+package com.gammatech.coffee.stations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.models.PendingOrder;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.responses.StationStatus;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Reparte los pedidos PENDING entre los puestos de barista registrados.
+ * - Cola de prioridad: primero el que mas lleva esperando, contando cada cafe como itemWeight de espera extra.
+ *   Como todos los pedidos envejecen igual, la clave (fecha - cafes * itemWeight) es fija y la cola no se reordena.
+ * - Los puestos esperan en /next (long-poll) en orden de llegada.
+ * - Un solo hilo empareja puesto y pedido y lo reclama con un UPDATE condicional (PENDING -> PROCESSING),
+ *   asi que los puestos no compiten por el mismo pedido. Si el pedido ya no estaba PENDING se pasa al siguiente.
+ * Con varias instancias cada una tiene su cola (recargada cada resyncInterval) y el UPDATE condicional evita
+ * que un pedido se asigne dos veces. Sin puestos registrados no hace nada.
+ */
+@Component
+@Lazy(false)
+public class StationScheduler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StationScheduler.class);
+    private static final Pattern STATION_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final Comparator<Entry> PRIORITY = Comparator.comparingLong(Entry::rank)
+            .thenComparingLong(Entry::orderId);
+
+    private final OrderRepository orderRepository;
+    private final OrderViewProjector orderViewProjector;
+    private final ShardRouter shardRouter;
+    private final StationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("station-dispatcher").factory());
+
+    // cola y esperas: las tocan los hilos de peticion y el dispatcher
+    private final Object lock = new Object();
+    private final TreeSet<Entry> queue = new TreeSet<>(PRIORITY);
+    private final Map<Long, Entry> queued = new HashMap<>();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private final Map<String, Station> stations = new ConcurrentHashMap<>();
+
+    public StationScheduler(OrderRepository orderRepository, OrderViewProjector orderViewProjector,
+            ShardRouter shardRouter, StationProperties properties, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderViewProjector = orderViewProjector;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        meterRegistry.gauge("coffee.stations.queue", this, scheduler -> scheduler.queueSize());
+    }
+
+    public StationStatus register(String stationId) {
+        if (stationId == null || !STATION_ID.matcher(stationId).matches()) {
+            throw new IllegalArgumentException("El id del puesto debe tener de 1 a 64 letras, numeros, '-' o '_'");
+        }
+        boolean first = stations.isEmpty();
+        Station station = stations.computeIfAbsent(stationId, Station::new);
+        if (first) {
+            // la cola solo se mantiene mientras hay puestos: se carga con los pendientes actuales
+            dispatcher.execute(this::resync);
+        }
+        return status(station);
+    }
+
+    public void unregister(String stationId) {
+        Station station = stations.remove(stationId);
+        if (station == null) {
+            throw new ResourceNotFoundException("No existe el puesto: %s", stationId);
+        }
+        List<Waiter> removed = new ArrayList<>();
+        synchronized (lock) {
+            waiters.removeIf(waiter -> waiter.station() == station && removed.add(waiter));
+            if (stations.isEmpty()) {
+                queue.clear();
+                queued.clear();
+            }
+        }
+        removed.forEach(waiter -> waiter.result().setResult(ResponseEntity.noContent().build()));
+    }
+
+    public List<StationStatus> getStations() {
+        return stations.values().stream()
+                .map(this::status)
+                .sorted(Comparator.comparing(StationStatus::id))
+                .toList();
+    }
+
+    // siguiente pedido para el puesto; si no hay ninguno responde 204 al cumplirse el timeout
+    public DeferredResult<ResponseEntity<Order>> next(String stationId, Duration timeout) {
+        Station station = stations.get(stationId);
+        if (station == null) {
+            throw new ResourceNotFoundException("No existe el puesto: %s", stationId);
+        }
+        Duration wait = timeout == null ? properties.getDefaultTimeout() : timeout;
+        if (wait.isNegative() || wait.compareTo(properties.getMaxTimeout()) > 0) {
+            throw new IllegalArgumentException("El timeout debe estar entre 0 y " + properties.getMaxTimeout());
+        }
+        DeferredResult<ResponseEntity<Order>> result = new DeferredResult<>(Math.max(1, wait.toMillis()),
+                () -> ResponseEntity.noContent().build());
+        Waiter waiter = new Waiter(station, result);
+        result.onCompletion(() -> {
+            synchronized (lock) {
+                waiters.remove(waiter);
+            }
+        });
+        synchronized (lock) {
+            waiters.add(waiter);
+        }
+        signal();
+        return result;
+    }
+
+    // OrderService lo llama tras el commit al crear o modificar un pedido
+    public void offer(Order order) {
+        if (stations.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            remove(order.getId());
+            if (order.getOrderStatus() == OrderStatus.PENDING) {
+                add(entry(order.getId(), shardRouter.shardOf(order.getCustomer().getId()), order.getDateOrder(),
+                        order.getItems().size()));
+            }
+        }
+        signal();
+    }
+
+    @Scheduled(initialDelayString = "${coffee.stations.resync-interval:PT30S}",
+            fixedDelayString = "${coffee.stations.resync-interval:PT30S}")
+    public void scheduledResync() {
+        if (!stations.isEmpty()) {
+            dispatcher.execute(this::resync);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+    }
+
+    // METODOS
+
+    private void signal() {
+        dispatcher.execute(this::drain);
+    }
+
+    // solo en el hilo del dispatcher
+    private void drain() {
+        while (true) {
+            Waiter waiter;
+            Entry entry;
+            synchronized (lock) {
+                waiters.removeIf(candidate -> candidate.result().isSetOrExpired());
+                if (waiters.isEmpty() || queue.isEmpty()) {
+                    return;
+                }
+                waiter = waiters.poll();
+                entry = queue.pollFirst();
+                queued.remove(entry.orderId());
+            }
+            Optional<Order> claimed;
+            try {
+                claimed = claim(entry, waiter.station().id());
+            } catch (RuntimeException e) {
+                log.warn("No se pudo reclamar el pedido {} para el puesto {}", entry.orderId(), waiter.station().id(), e);
+                requeue(waiter, entry);
+                return;
+            }
+            if (claimed.isEmpty()) {
+                // ya no estaba PENDING (cambiado a mano, borrado o asignado por otra instancia)
+                requeue(waiter, null);
+                continue;
+            }
+            if (waiter.result().setResult(ResponseEntity.ok(claimed.get()))) {
+                waiter.station().assigned().incrementAndGet();
+            } else {
+                // el puesto dejo de esperar justo ahora: el pedido vuelve a la cola
+                release(entry, waiter.station().id());
+                requeue(null, entry);
+            }
+        }
+    }
+
+    private Optional<Order> claim(Entry entry, String stationId) {
+        return shardRouter.onShard(entry.shard(), () -> {
+            return transactionTemplate.execute(status -> {
+                if (orderRepository.claim(entry.orderId(), stationId) == 0) {
+                    return Optional.<Order>empty();
+                }
+                Optional<Order> order = orderRepository.findFullById(entry.orderId());
+                order.ifPresent(orderViewProjector::project);
+                return order;
+            });
+        });
+    }
+
+    private void release(Entry entry, String stationId) {
+        shardRouter.onShard(entry.shard(), () -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (orderRepository.release(entry.orderId(), stationId) > 0) {
+                    orderRepository.findFullById(entry.orderId()).ifPresent(orderViewProjector::project);
+                }
+            });
+            return null;
+        });
+    }
+
+    private void requeue(Waiter waiter, Entry entry) {
+        synchronized (lock) {
+            if (waiter != null) {
+                waiters.addFirst(waiter);
+            }
+            if (entry != null && !queued.containsKey(entry.orderId())) {
+                add(entry);
+            }
+        }
+    }
+
+    // sustituye la cola por los pedidos PENDING de la base de datos, sin perder los que llegaron mientras tanto
+    private void resync() {
+        long started = System.nanoTime();
+        List<Entry> pending = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int target = shard;
+                for (PendingOrder order : shardRouter.onShard(shard, orderRepository::findPendingOrders)) {
+                    pending.add(entry(order.id(), target, order.dateOrder(), order.items()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo recargar la cola de pedidos pendientes", e);
+            return;
+        }
+        synchronized (lock) {
+            queue.removeIf(entry -> entry.offeredAt() < started && queued.remove(entry.orderId()) != null);
+            for (Entry entry : pending) {
+                if (!queued.containsKey(entry.orderId())) {
+                    add(entry);
+                }
+            }
+        }
+        drain();
+    }
+
+    private Entry entry(Long orderId, int shard, LocalDateTime dateOrder, int items) {
+        long waitedSince = dateOrder == null ? 0 : dateOrder.atZone(ZoneId.systemDefault()).toEpochSecond();
+        long rank = waitedSince - items * properties.getItemWeight().toSeconds();
+        return new Entry(orderId, shard, rank, System.nanoTime());
+    }
+
+    private void add(Entry entry) {
+        queue.add(entry);
+        queued.put(entry.orderId(), entry);
+    }
+
+    private void remove(Long orderId) {
+        Entry previous = queued.remove(orderId);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+    }
+
+    private int queueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    private StationStatus status(Station station) {
+        int waiting;
+        synchronized (lock) {
+            waiting = (int) waiters.stream().filter(waiter -> waiter.station() == station).count();
+        }
+        return new StationStatus(station.id(), station.assigned().get(), waiting);
+    }
+
+    private record Entry(long orderId, int shard, long rank, long offeredAt) {
+    }
+
+    private record Station(String id, AtomicLong assigned) {
+        Station(String id) {
+            this(id, new AtomicLong());
+        }
+    }
+
+    private record Waiter(Station station, DeferredResult<ResponseEntity<Order>> result) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.gammatech.coffee.throttling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.gammatech.coffee.throttling.ThrottlingProperties.Route;
+
+/*
+ * Un cubo de tokens por (metodo, ruta, cliente). Los cubos se reparten por hash entre STRIPES mapas LRU con su propio
+ * cerrojo: las peticiones de clientes distintos casi nunca esperan unas a otras.
+ * Entre todos guardan como mucho maxTrackedClients cubos; cada mapa descarta el usado hace mas tiempo de los suyos.
+ */
+class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final Map<String, TokenBucket>[] stripes;
+    private final LongSupplier clock;
+
+    @SuppressWarnings("unchecked")
+    RateLimiter(int maxTrackedClients, LongSupplier clock) {
+        this.clock = clock;
+        this.stripes = new Map[Math.max(1, Math.min(STRIPES, maxTrackedClients))];
+        for (int i = 0; i < stripes.length; i++) {
+            // el resto de la division se reparte entre los primeros para que la suma sea maxTrackedClients
+            int capacity = maxTrackedClients / stripes.length + (i < maxTrackedClients % stripes.length ? 1 : 0);
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    // devuelve 0 si la peticion pasa o los segundos de espera si se rechaza
+    long acquire(Route route, String client) {
+        long now = clock.getAsLong();
+        String key = route.getMethod() + ' ' + route.getPattern() + '|' + client;
+        Map<String, TokenBucket> stripe = stripeOf(key);
+        TokenBucket bucket;
+        synchronized (stripe) {
+            bucket = stripe.computeIfAbsent(key,
+                    k -> new TokenBucket(route.getCapacity(), route.getRefillPerSecond(), now));
+        }
+        if (bucket.tryConsume(now)) {
+            return 0;
+        }
+        return Math.max(1, bucket.secondsUntilNextToken(now));
+    }
+
+    int trackedClients() {
+        int total = 0;
+        for (Map<String, TokenBucket> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size();
+            }
+        }
+        return total;
+    }
+
+    // METODOS
+
+    private Map<String, TokenBucket> stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+}
@@ -0,0 +1,103 @@
+package com.gammatech.coffee.throttling;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.exceptions.ErrorCode;
+import com.gammatech.coffee.responses.ErrorResponse;
+import com.gammatech.coffee.throttling.ThrottlingProperties.Route;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Limita las rutas configuradas en coffee.throttling.routes:
+ * 1. cubo de tokens por IP -> 429 si se agota. No se usa ninguna cabecera del cliente: sin autenticar,
+ *    bastaria con cambiar su valor en cada peticion para estrenar un cubo lleno
+ * 2. limite de peticiones simultaneas -> 503 antes de agotar el pool de conexiones
+ * Cada decision se cuenta en la metrica coffee.throttling.decisions.
+ */
+@Component
+public class ThrottlingFilter extends OncePerRequestFilter {
+
+    private final ThrottlingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Semaphore inFlight;
+
+    public ThrottlingFilter(ThrottlingProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = new RateLimiter(properties.getMaxTrackedClients(), System::nanoTime);
+        this.inFlight = new Semaphore(properties.getMaxConcurrentRequests());
+        meterRegistry.gauge("coffee.throttling.in_flight", inFlight,
+                semaphore -> properties.getMaxConcurrentRequests() - semaphore.availablePermits());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || findRoute(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = findRoute(request);
+        String tag = request.getMethod() + " " + route.getPattern();
+
+        long waitSeconds = rateLimiter.acquire(route, request.getRemoteAddr());
+        if (waitSeconds > 0) {
+            record(tag, "rate_limited");
+            reject(response, ErrorCode.RATE_LIMITED, waitSeconds, "Demasiadas peticiones, intentelo mas tarde");
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            record(tag, "shed");
+            reject(response, ErrorCode.SERVICE_OVERLOADED, properties.getRetryAfterSeconds(),
+                    "Servicio saturado, intentelo mas tarde");
+            return;
+        }
+        try {
+            record(tag, "allowed");
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // METODOS
+
+    private Route findRoute(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : properties.getRoutes()) {
+            if (route.getMethod().equalsIgnoreCase(request.getMethod()) && pathMatcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void record(String route, String outcome) {
+        meterRegistry.counter("coffee.throttling.decisions", "route", route, "outcome", outcome).increment();
+    }
+
+    private void reject(HttpServletResponse response, ErrorCode code, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(code.getStatus().value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(code, message));
+    }
+}
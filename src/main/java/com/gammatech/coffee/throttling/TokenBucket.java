@@ -0,0 +1,43 @@
+package com.gammatech.coffee.throttling;
+
+// Cubo de tokens: 'capacity' peticiones de rafaga y 'refillPerSecond' sostenidas
+class TokenBucket {
+
+    private final int capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    synchronized boolean tryConsume(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    // segundos hasta que haya un token disponible
+    synchronized long secondsUntilNextToken(long now) {
+        refill(now);
+        if (tokens >= 1 || refillPerNano <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000_000.0);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
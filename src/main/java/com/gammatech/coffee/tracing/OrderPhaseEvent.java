@@ -0,0 +1,31 @@
+package com.gammatech.coffee.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Fase de createOrder/updateOrder; desactivado salvo que la grabacion lo active (jfr/coffee-orders.jfc)
+@Name("com.gammatech.coffee.OrderPhase")
+@Label("Order Phase")
+@Category({ "Coffee", "Orders" })
+@Description("Duracion de cada fase al crear o modificar un pedido")
+@Enabled(false)
+@StackTrace(false)
+class OrderPhaseEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Items")
+    int items;
+}
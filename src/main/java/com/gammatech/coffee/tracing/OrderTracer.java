@@ -0,0 +1,169 @@
+package com.gammatech.coffee.tracing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.FlightRecorder;
+
+/*
+ * Trazas del ciclo de vida de los pedidos: eventos JFR por fase y por llamada a repositorio,
+ * y opcionalmente spans en fichero (coffee.tracing.spans-enabled).
+ * Los eventos estan desactivados por defecto; se activan en caliente al iniciar una grabacion con
+ * jfr/coffee-orders.jfc. Sin grabacion ni spans phase() devuelve NOOP y no se guarda nada por hilo.
+ *
+ *   try (OrderTracer.Phase phase = tracer.phase("save")) { ... phase.orderId(id); }
+ */
+@Component
+public class OrderTracer implements DisposableBean {
+
+    private final ThreadLocal<Phase> current = new ThreadLocal<>();
+    private final SpanFileExporter spans;
+
+    public OrderTracer(TracingProperties properties) {
+        FlightRecorder.register(OrderPhaseEvent.class);
+        FlightRecorder.register(RepositoryCallEvent.class);
+        try {
+            this.spans = properties.isSpansEnabled()
+                    ? new SpanFileExporter(properties.getSpansFile(), properties.getSpansQueueCapacity())
+                    : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el fichero de spans " + properties.getSpansFile(), e);
+        }
+    }
+
+    public Phase phase(String name) {
+        OrderPhaseEvent event = new OrderPhaseEvent();
+        if (!event.isEnabled() && spans == null) {
+            return Phase.NOOP;
+        }
+        Phase parent = current.get();
+        Phase phase = new Phase(this, parent, name, event,
+                spans == null ? null : new Span(name, parent == null ? null : parent.span));
+        current.set(phase);
+        event.begin();
+        return phase;
+    }
+
+    // MethodInterceptor que RepositoryTracingConfig anade a cada repositorio
+    Object traceRepositoryCall(String repository, MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        Phase phase = current.get();
+        if (!event.isEnabled() && (spans == null || phase == null)) {
+            return invocation.proceed();
+        }
+        String method = invocation.getMethod().getName();
+        Span span = spans == null || phase == null ? null : new Span(repository + "." + method, phase.span);
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            int rows = result instanceof Collection<?> collection ? collection.size() : 0;
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = method;
+                if (phase != null) {
+                    event.operation = phase.operation();
+                    event.orderId = phase.orderId;
+                }
+                event.items = rows;
+                event.commit();
+            }
+            if (span != null) {
+                span.attributes.put("db.operation", method);
+                span.attributes.put("code.namespace", repository);
+                span.end();
+                spans.export(span);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (spans != null) {
+            spans.close();
+        }
+    }
+
+    public static final class Phase implements AutoCloseable {
+
+        static final Phase NOOP = new Phase(null, null, null, null, null);
+
+        private final OrderTracer tracer;
+        private final Phase parent;
+        private final String name;
+        private final OrderPhaseEvent event;
+        private final Span span;
+        private long orderId;
+        private int items;
+
+        private Phase(OrderTracer tracer, Phase parent, String name, OrderPhaseEvent event, Span span) {
+            this.tracer = tracer;
+            this.parent = parent;
+            this.name = name;
+            this.event = event;
+            this.span = span;
+            if (parent != null) {
+                this.orderId = parent.orderId;
+                this.items = parent.items;
+            }
+        }
+
+        public Phase orderId(Long orderId) {
+            if (orderId != null) {
+                this.orderId = orderId;
+            }
+            return this;
+        }
+
+        public Phase items(int items) {
+            this.items = items;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (this == NOOP) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation();
+                event.phase = name;
+                event.orderId = orderId;
+                event.items = items;
+                event.commit();
+            }
+            if (span != null) {
+                span.attributes.put("order.id", orderId);
+                span.attributes.put("order.items", items);
+                span.end();
+                tracer.spans.export(span);
+            }
+            if (parent != null && parent.orderId == 0) {
+                parent.orderId = orderId;
+            }
+            if (parent == null) {
+                tracer.current.remove();
+            } else {
+                tracer.current.set(parent);
+            }
+        }
+
+        // nombre de la fase mas externa: createOrder, updateOrder...
+        private String operation() {
+            Phase root = this;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            return root.name;
+        }
+    }
+}
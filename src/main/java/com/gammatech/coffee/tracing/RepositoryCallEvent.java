@@ -0,0 +1,34 @@
+package com.gammatech.coffee.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Llamada a un repositorio de Spring Data; si ocurre dentro de una fase de pedido lleva su operacion e id
+@Name("com.gammatech.coffee.RepositoryCall")
+@Label("Repository Call")
+@Category({ "Coffee", "Repositories" })
+@Description("Duracion de cada llamada a un repositorio")
+@Enabled(false)
+@StackTrace(false)
+class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Items")
+    int items;
+}
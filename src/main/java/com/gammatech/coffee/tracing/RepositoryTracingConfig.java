@@ -0,0 +1,33 @@
+package com.gammatech.coffee.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+// Anade OrderTracer como interceptor a todos los repositorios de Spring Data (sin AspectJ)
+@Configuration(proxyBeanMethods = false)
+public class RepositoryTracingConfig {
+
+    @Bean
+    static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<OrderTracer> tracer) {
+        SingletonSupplier<OrderTracer> orderTracer = SingletonSupplier.of(tracer::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory
+                            .addRepositoryProxyPostProcessor((proxy, information) -> {
+                                String repository = information.getRepositoryInterface().getSimpleName();
+                                proxy.addAdvice((MethodInterceptor) invocation -> orderTracer.obtain()
+                                        .traceRepositoryCall(repository, invocation));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
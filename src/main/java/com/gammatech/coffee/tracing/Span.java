@@ -0,0 +1,40 @@
+package com.gammatech.coffee.tracing;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Span al estilo OpenTelemetry: ids hexadecimales, tiempos en nanosegundos Unix y atributos
+final class Span {
+
+    final String traceId;
+    final String spanId;
+    final String parentSpanId;
+    final String name;
+    final long startTimeUnixNano;
+    long endTimeUnixNano;
+    final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    Span(String name, Span parent) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.traceId = parent == null ? hex(random.nextLong()) + hex(random.nextLong()) : parent.traceId;
+        this.spanId = hex(random.nextLong());
+        this.parentSpanId = parent == null ? null : parent.spanId;
+        this.name = name;
+        this.startTimeUnixNano = nowUnixNano();
+    }
+
+    void end() {
+        endTimeUnixNano = nowUnixNano();
+    }
+
+    private static long nowUnixNano() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private static String hex(long value) {
+        return String.format("%016x", value);
+    }
+}
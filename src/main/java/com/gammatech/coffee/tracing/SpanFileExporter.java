@@ -0,0 +1,123 @@
+package com.gammatech.coffee.tracing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/*
+ * Escribe los spans terminados en un fichero, uno por linea en JSON.
+ * Las peticiones solo encolan; un hilo aparte escribe en lotes. Con la cola llena el span se descarta.
+ */
+class SpanFileExporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpanFileExporter.class);
+    private static final int BATCH_SIZE = 256;
+
+    private final BlockingQueue<Span> queue;
+    private final Writer writer;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Thread thread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    SpanFileExporter(Path file, int capacity) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.thread = Thread.ofPlatform().name("span-exporter").daemon().start(this::run);
+    }
+
+    void export(Span span) {
+        if (!queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    // METODOS
+
+    // sin interrupt(): cerraria el canal del fichero a mitad de escritura
+    private void run() {
+        List<Span> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Span> batch) {
+        try {
+            for (Span span : batch) {
+                JsonGenerator json = jsonFactory.createGenerator(writer);
+                json.writeStartObject();
+                json.writeStringField("traceId", span.traceId);
+                json.writeStringField("spanId", span.spanId);
+                if (span.parentSpanId != null) {
+                    json.writeStringField("parentSpanId", span.parentSpanId);
+                }
+                json.writeStringField("name", span.name);
+                json.writeStringField("kind", "INTERNAL");
+                json.writeNumberField("startTimeUnixNano", span.startTimeUnixNano);
+                json.writeNumberField("endTimeUnixNano", span.endTimeUnixNano);
+                json.writeObjectFieldStart("attributes");
+                for (var attribute : span.attributes.entrySet()) {
+                    if (attribute.getValue() instanceof Number number) {
+                        json.writeNumberField(attribute.getKey(), number.longValue());
+                    } else {
+                        json.writeStringField(attribute.getKey(), String.valueOf(attribute.getValue()));
+                    }
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+                json.flush();
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("No se pudieron escribir {} spans", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gammatech.coffee.tracing;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Spans opcionales del ciclo de vida de los pedidos (coffee.tracing.*); los eventos JFR no dependen de esto
+@ConfigurationProperties(prefix = "coffee.tracing")
+public class TracingProperties {
+
+    private boolean spansEnabled = false;
+
+    // un span por linea en JSON (campos al estilo OTLP)
+    private Path spansFile = Path.of("spans.jsonl");
+
+    // spans pendientes de escribir; si se llena se descartan en lugar de frenar las peticiones
+    private int spansQueueCapacity = 10_000;
+
+    public boolean isSpansEnabled() {
+        return spansEnabled;
+    }
+
+    public void setSpansEnabled(boolean spansEnabled) {
+        this.spansEnabled = spansEnabled;
+    }
+
+    public Path getSpansFile() {
+        return spansFile;
+    }
+
+    public void setSpansFile(Path spansFile) {
+        this.spansFile = spansFile;
+    }
+
+    public int getSpansQueueCapacity() {
+        return spansQueueCapacity;
+    }
+
+    public void setSpansQueueCapacity(int spansQueueCapacity) {
+        this.spansQueueCapacity = spansQueueCapacity;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gammatech.coffee.trending;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.gammatech.coffee.responses.TrendingCoffee;
+
+/*
+ * Ventana deslizante dividida en bucketCount cubos de igual duracion, cada uno con su SpaceSaving.
+ * Al avanzar el tiempo el cubo mas antiguo se vacia y se reutiliza, asi que la memoria es fija.
+ * El ranking se calcula una vez por cubo o tras una escritura y se guarda ya ordenado: leerlo es O(k).
+ */
+final class SlidingTopK {
+
+    private static final Comparator<TrendingCoffee> RANKING = Comparator.comparingLong(TrendingCoffee::units)
+            .reversed()
+            .thenComparing(TrendingCoffee::coffeeId);
+
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+    private final int maxResults;
+
+    private volatile Snapshot snapshot = new Snapshot(Long.MIN_VALUE, List.of());
+    private volatile boolean dirty;
+
+    SlidingTopK(Duration window, int bucketCount, int counters, int maxResults) {
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(new SpaceSaving(counters));
+        }
+        this.maxResults = maxResults;
+    }
+
+    synchronized void add(long key, String name, long weight, long atMillis, long nowMillis) {
+        long current = Math.floorDiv(nowMillis, bucketMillis);
+        // las ventas futuras (relojes desfasados) cuentan en el cubo actual
+        long index = Math.min(Math.floorDiv(atMillis, bucketMillis), current);
+        if (index <= current - buckets.length) {
+            return;
+        }
+        Bucket bucket = buckets[(int) Math.floorMod(index, (long) buckets.length)];
+        if (bucket.index != index) {
+            bucket.sketch.clear();
+            bucket.index = index;
+        }
+        bucket.sketch.add(key, name, weight);
+        dirty = true;
+    }
+
+    List<TrendingCoffee> top(int limit, long nowMillis) {
+        long current = Math.floorDiv(nowMillis, bucketMillis);
+        Snapshot cached = snapshot;
+        if (dirty || cached.index != current) {
+            cached = refresh(current);
+        }
+        return limit >= cached.top.size() ? cached.top : cached.top.subList(0, limit);
+    }
+
+    // METODOS
+
+    private synchronized Snapshot refresh(long current) {
+        if (!dirty && snapshot.index == current) {
+            return snapshot;
+        }
+        Map<Long, TrendingCoffee> merged = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.index <= current - buckets.length || bucket.index > current) {
+                continue;
+            }
+            for (SpaceSaving.Counter counter : bucket.sketch.counters()) {
+                merged.merge(counter.key, new TrendingCoffee(counter.key, counter.name, counter.count, counter.error),
+                        (a, b) -> new TrendingCoffee(a.coffeeId(), a.name(), a.units() + b.units(),
+                                a.maxOverestimate() + b.maxOverestimate()));
+            }
+        }
+        PriorityQueue<TrendingCoffee> top = new PriorityQueue<>(maxResults + 1, RANKING.reversed());
+        for (TrendingCoffee coffee : merged.values()) {
+            top.add(coffee);
+            if (top.size() > maxResults) {
+                top.poll();
+            }
+        }
+        List<TrendingCoffee> ranking = new ArrayList<>(top);
+        ranking.sort(RANKING);
+        Snapshot refreshed = new Snapshot(current, List.copyOf(ranking));
+        snapshot = refreshed;
+        dirty = false;
+        return refreshed;
+    }
+
+    private static final class Bucket {
+        private final SpaceSaving sketch;
+        private long index = Long.MIN_VALUE;
+
+        Bucket(SpaceSaving sketch) {
+            this.sketch = sketch;
+        }
+    }
+
+    private record Snapshot(long index, List<TrendingCoffee> top) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.gammatech.coffee.trending;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Resumen Space-Saving con pesos: guarda como mucho capacity contadores. Cuando llega una clave nueva y no hay
+ * hueco se reutiliza el contador minimo (count = minimo + peso, error = minimo), de modo que cualquier clave con
+ * frecuencia real mayor que total/capacity esta seguro en el resumen y su cuenta nunca se queda corta.
+ * No es seguro entre hilos: lo protege SlidingTopK.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+
+    SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor que cero");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void add(long key, String name, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            counter.name = name;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, name, weight, 0));
+            return;
+        }
+        // solo se recorre al desalojar; capacity es pequena (decenas)
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter(key, name, min.count + weight, min.count));
+    }
+
+    void clear() {
+        counters.clear();
+    }
+
+    Collection<Counter> counters() {
+        return counters.values();
+    }
+
+    static final class Counter {
+        final long key;
+        String name;
+        long count;
+        // cuanto puede sobrar en count
+        long error;
+
+        Counter(long key, String name, long count, long error) {
+            this.key = key;
+            this.name = name;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
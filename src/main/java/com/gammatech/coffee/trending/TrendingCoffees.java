@@ -0,0 +1,133 @@
+package com.gammatech.coffee.trending;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gammatech.coffee.models.CoffeeSale;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.responses.TrendingCoffeesResponse;
+import com.gammatech.coffee.sharding.ShardRouter;
+
+/*
+ * Cafes mas vendidos en los ultimos 15 minutos, hora y dia, sin consultar la base de datos.
+ * OrderService anota las unidades vendidas tras el commit; al arrancar se cargan las ventas del ultimo dia.
+ * Cada instancia cuenta las ventas que pasan por ella (mas las cargadas al arrancar).
+ */
+@Component
+public class TrendingCoffees {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingCoffees.class);
+
+    private volatile Map<TrendingWindow, SlidingTopK> windows;
+    // ranking que se esta cargando: las ventas que llegan mientras tanto se anotan tambien en el
+    // (el cambio de windows espera a que terminen las anotaciones en curso)
+    private Map<TrendingWindow, SlidingTopK> rebuilding;
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnly;
+    private final TrendingProperties properties;
+
+    public TrendingCoffees(TrendingProperties properties, OrderRepository orderRepository, ShardRouter shardRouter,
+            PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.windows = emptyWindows();
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public void record(Collection<CoffeeSale> sales) {
+        long now = System.currentTimeMillis();
+        swap.readLock().lock();
+        try {
+            Map<TrendingWindow, SlidingTopK> current = windows;
+            for (CoffeeSale sale : sales) {
+                record(current, sale, now);
+                if (rebuilding != null) {
+                    record(rebuilding, sale, now);
+                }
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    public TrendingCoffeesResponse top(TrendingWindow window, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El limite debe ser mayor que cero");
+        }
+        return new TrendingCoffeesResponse(window.getLabel(),
+                windows.get(window).top(Math.min(limit, properties.getMaxLimit()), System.currentTimeMillis()));
+    }
+
+    // sustituye el ranking por el de las ventas del ultimo dia guardadas en la base de datos, sin perder las que se
+    // confirman mientras se leen (una venta confirmada justo al empezar la consulta puede contar dos veces)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<TrendingWindow, SlidingTopK> rebuilt = emptyWindows();
+        swapTo(null, rebuilt);
+        LocalDateTime since = LocalDateTime.now().minus(TrendingWindow.LAST_DAY.getLength());
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            loaded += shardRouter.onShard(shard, () -> readOnly.execute(status -> {
+                int count = 0;
+                try (Stream<CoffeeSale> sales = orderRepository.streamSalesSince(since)) {
+                    for (CoffeeSale sale : (Iterable<CoffeeSale>) sales::iterator) {
+                        record(rebuilt, sale, now);
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        swapTo(rebuilt, null);
+        log.debug("Ranking de cafes cargado con {} lineas de pedido", loaded);
+    }
+
+    // METODOS
+
+    private void swapTo(Map<TrendingWindow, SlidingTopK> active, Map<TrendingWindow, SlidingTopK> loading) {
+        swap.writeLock().lock();
+        try {
+            if (active != null) {
+                windows = active;
+            }
+            rebuilding = loading;
+        } finally {
+            swap.writeLock().unlock();
+        }
+    }
+
+    private Map<TrendingWindow, SlidingTopK> emptyWindows() {
+        Map<TrendingWindow, SlidingTopK> empty = new EnumMap<>(TrendingWindow.class);
+        for (TrendingWindow window : TrendingWindow.values()) {
+            empty.put(window, new SlidingTopK(window.getLength(), window.getBuckets(), properties.getCounters(),
+                    properties.getMaxLimit()));
+        }
+        return empty;
+    }
+
+    private static void record(Map<TrendingWindow, SlidingTopK> target, CoffeeSale sale, long now) {
+        long at = sale.at().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (SlidingTopK window : target.values()) {
+            window.add(sale.coffeeId(), sale.coffeeName(), sale.quantity(), at, now);
+        }
+    }
+}
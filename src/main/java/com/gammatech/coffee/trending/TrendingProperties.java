@@ -0,0 +1,30 @@
+package com.gammatech.coffee.trending;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Ranking de cafes mas vendidos en memoria (coffee.trending.*)
+@ConfigurationProperties(prefix = "coffee.trending")
+public class TrendingProperties {
+
+    // contadores Space-Saving por cubo: cafes distintos que se siguen con exactitud en cada cubo
+    private int counters = 64;
+
+    // tamano maximo del ranking que se puede pedir
+    private int maxLimit = 50;
+
+    public int getCounters() {
+        return counters;
+    }
+
+    public void setCounters(int counters) {
+        this.counters = counters;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
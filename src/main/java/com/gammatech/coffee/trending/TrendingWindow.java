@@ -0,0 +1,41 @@
+package com.gammatech.coffee.trending;
+
+import java.time.Duration;
+
+// Ventanas del ranking y en cuantos cubos se divide cada una (precision con la que "caducan" las ventas)
+public enum TrendingWindow {
+    LAST_15_MINUTES("15m", Duration.ofMinutes(15), 15),
+    LAST_HOUR("1h", Duration.ofHours(1), 12),
+    LAST_DAY("1d", Duration.ofDays(1), 24);
+
+    private final String label;
+    private final Duration length;
+    private final int buckets;
+
+    TrendingWindow(String label, Duration length, int buckets) {
+        this.label = label;
+        this.length = length;
+        this.buckets = buckets;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public static TrendingWindow fromLabel(String label) {
+        for (TrendingWindow window : values()) {
+            if (window.label.equals(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Ventana no valida: " + label + " (15m, 1h o 1d)");
+    }
+}
@@ -0,0 +1,41 @@
+-- Esquema inicial (equivale al que generaba ddl-auto=update).
+-- Los generadores de ids dependen del motor: db/vendor/{vendor}/V1_1__id_generators.sql
+
+create table coffee (
+    id bigint not null,
+    name varchar(255) not null,
+    price float(53),
+    image_url varchar(255),
+    primary key (id),
+    constraint uk_coffee_name unique (name)
+) engine=InnoDB;
+
+create table customer (
+    id bigint not null,
+    name varchar(255),
+    email varchar(255) not null,
+    phone varchar(255),
+    primary key (id),
+    constraint uk_customer_email unique (email)
+) engine=InnoDB;
+
+create table orders (
+    id bigint not null,
+    customer_id bigint,
+    date_order datetime(6),
+    order_status tinyint,
+    total float(53) not null,
+    primary key (id),
+    constraint fk_orders_customer foreign key (customer_id) references customer (id)
+) engine=InnoDB;
+
+create table order_items (
+    id bigint not null,
+    order_id bigint,
+    coffee_id bigint,
+    quantity integer not null,
+    subtotal float(53) not null,
+    primary key (id),
+    constraint fk_order_items_order foreign key (order_id) references orders (id),
+    constraint fk_order_items_coffee foreign key (coffee_id) references coffee (id)
+) engine=InnoDB;
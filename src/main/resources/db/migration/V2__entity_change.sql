@@ -0,0 +1,13 @@
+-- Avisos de cambios de entidades entre instancias (coffee.invalidation.bus=jdbc).
+-- Se insertan en la misma transaccion que el cambio y cada nodo los lee por id creciente.
+
+create table entity_change (
+    id bigint not null auto_increment,
+    entity varchar(40) not null,
+    entity_id bigint not null,
+    origin varchar(36) not null,
+    changed_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_entity_change_changed_at on entity_change (changed_at);
@@ -0,0 +1,18 @@
+-- Modelo de lectura de pedidos: una fila por pedido con el JSON ya generado (OrderViewProjector).
+-- Vive en el mismo shard que el pedido.
+
+create table order_view (
+    order_id bigint not null,
+    customer_id bigint not null,
+    customer_name varchar(255),
+    order_status tinyint,
+    date_order datetime(6),
+    total float(53) not null,
+    document text not null,
+    projection_version integer not null,
+    projected_at datetime(6),
+    primary key (order_id)
+) engine=InnoDB;
+
+create index idx_order_view_status on order_view (order_status, order_id);
+create index idx_order_view_customer on order_view (customer_id, order_id);
@@ -0,0 +1,2 @@
+-- Puesto de barista al que StationScheduler asigna el pedido al pasarlo a PROCESSING
+alter table orders add column station_id varchar(64);
@@ -0,0 +1,15 @@
+-- Historico compacto de pedidos entregados antiguos (OrderArchiver).
+-- Va aparte de V1: las bases de datos anteriores a Flyway se toman como version 1.1 y no ejecutan V1.
+
+create table orders_archive (
+    id bigint not null,
+    customer_id bigint not null,
+    date_order datetime(6),
+    order_status varchar(20),
+    total float(53) not null,
+    items text not null,
+    archived_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_orders_archive_customer on orders_archive (customer_id);
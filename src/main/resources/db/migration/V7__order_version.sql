@@ -0,0 +1,8 @@
+-- Version de cada pedido (@Version en Order) y version del pedido con la que se genero su fila de order_view:
+-- una regeneracion en segundo plano que leyo el pedido antes de un cambio no pisa el documento mas reciente.
+
+alter table orders add column version bigint not null default 0;
+alter table order_view add column order_version bigint not null default 0;
+
+-- listado por estado: se parte de orders para no perder los pedidos sin fila en order_view
+create index idx_orders_status on orders (order_status, id);
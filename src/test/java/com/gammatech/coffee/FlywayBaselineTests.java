@@ -0,0 +1,59 @@
+package com.gammatech.coffee;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+
+// Una base de datos creada antes de Flyway (ddl-auto=update) se toma como 1.1 y recibe el resto de migraciones
+class FlywayBaselineTests {
+
+    private static final String URL = "jdbc:h2:mem:flyway_baseline;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void preFlywayDatabasesGetEveryLaterTable() throws Exception {
+        // el esquema anterior: V1 + generadores de ids, sin historial de Flyway
+        flyway().target("1.1").load().migrate();
+        assertThat(tables()).containsExactlyInAnyOrder("COFFEE", "CUSTOMER", "ORDERS", "ORDER_ITEMS",
+                "flyway_schema_history");
+        execute("drop table \"flyway_schema_history\"");
+
+        flyway().baselineOnMigrate(true).baselineVersion("1.1").load().migrate();
+
+        assertThat(tables()).contains("ENTITY_CHANGE", "ORDER_VIEW", "ORDERS_ARCHIVE");
+    }
+
+    private static FluentConfiguration flyway() {
+        return Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .placeholders(Map.of("shard_id_start", "1"));
+    }
+
+    private static List<String> tables() throws Exception {
+        List<String> tables = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                ResultSet rs = connection.getMetaData().getTables(null, "PUBLIC", null, new String[] { "TABLE" })) {
+            while (rs.next()) {
+                tables.add(rs.getString("TABLE_NAME"));
+            }
+        }
+        return tables;
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.gammatech.coffee.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.ArchivedOrderRepository;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.service.OrderService;
+
+@SpringBootTest
+class OrderArchiverTests {
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+    private Coffee coffee;
+
+    @BeforeEach
+    void setUp() {
+        coffee = coffeeRepository.save(new Coffee("Cortado archivo", 1.8, "cortado.jpg"));
+        customer = customerRepository.save(new Customer("Luis", "luis@archivo.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedOrderRepository.deleteAll();
+        orderRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void movesOnlyOldTerminalOrdersAndKeepsThemReadable() {
+        Order oldDelivered = save(OrderStatus.DELIVERED, LocalDateTime.now().minusDays(60), 3);
+        Order oldPending = save(OrderStatus.PENDING, LocalDateTime.now().minusDays(60), 1);
+        Order recentDelivered = save(OrderStatus.DELIVERED, LocalDateTime.now(), 2);
+
+        assertThat(orderArchiver.archiveExpiredOrders()).isEqualTo(1);
+
+        assertThat(orderRepository.findById(oldDelivered.getId())).isEmpty();
+        assertThat(archivedOrderRepository.count()).isEqualTo(1);
+
+        Order archived = orderService.getOrderById(oldDelivered.getId());
+        assertThat(archived.getOrderStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(archived.getTotal()).isEqualTo(5.4);
+        assertThat(archived.getCustomer().getEmail()).isEqualTo("luis@archivo.com");
+        assertThat(archived.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getCoffee().getName()).isEqualTo("Cortado archivo");
+            assertThat(item.getQuantity()).isEqualTo(3);
+        });
+
+        assertThat(orderService.getOrdersByCustomer(customer.getId()))
+                .extracting(Order::getId)
+                .containsExactlyInAnyOrder(oldDelivered.getId(), oldPending.getId(), recentDelivered.getId());
+    }
+
+    @Test
+    void onlyTerminalStatusesCanBeArchived() {
+        ArchiveProperties properties = new ArchiveProperties();
+        assertThatThrownBy(() -> properties.setStatuses(EnumSet.of(OrderStatus.DELIVERED, OrderStatus.PENDING)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(properties.getStatuses()).containsExactly(OrderStatus.DELIVERED);
+    }
+
+    private Order save(OrderStatus status, LocalDateTime date, int quantity) {
+        Order order = new Order(customer, date, new ArrayList<>());
+        order.setOrderStatus(status);
+        OrderItem item = new OrderItem(order, coffee, quantity);
+        item.setSubtotal(item.calculateSubtotal());
+        order.getItems().add(item);
+        order.setTotal(order.calculateTotal());
+        return orderRepository.save(order);
+    }
+}
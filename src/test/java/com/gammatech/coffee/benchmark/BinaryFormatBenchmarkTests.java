@@ -0,0 +1,84 @@
+package com.gammatech.coffee.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.gammatech.coffee.models.Order;
+
+// Tamano y tiempo de codificacion/decodificacion de pedidos en JSON, CBOR y Smile (mismo mapper que la aplicacion)
+class BinaryFormatBenchmarkTests {
+
+    private static final int ITERATIONS = 30;
+
+    @Test
+    void compareBinaryFormatsAgainstJson() throws IOException {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", mapper(new JsonFactory()));
+        formats.put("cbor", mapper(new CBORFactory()));
+        formats.put("smile", mapper(new SmileFactory()));
+
+        // un pedido tipico de TPV (3 lineas) y la consulta de 1.000 pedidos
+        Order single = OrderFixtures.orders(3).get(2);
+        Order[] batch = OrderFixtures.orders(1_000).toArray(Order[]::new);
+
+        System.out.printf("%-6s %10s %10s %10s %12s %12s %12s%n", "format", "order B", "enc us", "dec us",
+                "1000 ord B", "enc ms", "dec ms");
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            Result one = measure(format.getValue(), single, Order.class, 2_000);
+            Result many = measure(format.getValue(), batch, Order[].class, ITERATIONS);
+            results.put(format.getKey(), many);
+            System.out.printf("%-6s %10d %10.1f %10.1f %12d %12.2f %12.2f%n", format.getKey(), one.bytes(),
+                    one.encodeMillis() * 1000, one.decodeMillis() * 1000, many.bytes(), many.encodeMillis(),
+                    many.decodeMillis());
+        }
+
+        assertThat(results.get("cbor").bytes()).isLessThan(results.get("json").bytes());
+        assertThat(results.get("smile").bytes()).isLessThan(results.get("cbor").bytes());
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new BlackbirdModule())
+                .build();
+    }
+
+    private static <T> Result measure(ObjectMapper mapper, Object value, Class<T> type, int iterations)
+            throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        // calentamiento
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        double encode = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(encoded, type);
+        }
+        double decode = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        return new Result(encoded.length, encode, decode);
+    }
+
+    private record Result(int bytes, double encodeMillis, double decodeMillis) {
+    }
+}
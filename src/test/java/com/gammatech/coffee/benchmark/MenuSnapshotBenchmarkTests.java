@@ -0,0 +1,99 @@
+package com.gammatech.coffee.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.menu.MenuSnapshot;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.service.CoffeeService;
+
+// Throughput de GET /api/coffees/all: consulta + Jackson + gzip del servidor frente a los bytes de MenuSnapshot
+@SpringBootTest
+class MenuSnapshotBenchmarkTests {
+
+    private static final int COFFEES = 100;
+    private static final int OPERATIONS = 2_000;
+
+    @Autowired
+    private CoffeeService coffeeService;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        coffeeRepository.deleteAll();
+        menuSnapshot.invalidate();
+    }
+
+    @Test
+    void snapshotServesTheSameBytesAsSerializingPerRequest() {
+        List<Coffee> coffees = new ArrayList<>();
+        for (int i = 0; i < COFFEES; i++) {
+            coffees.add(new Coffee("Cafe bench " + i, 1.2 + i * 0.05, "https://cdn.cafe.com/bench/" + i + ".jpg"));
+        }
+        coffeeRepository.saveAll(coffees);
+        menuSnapshot.invalidate();
+
+        Supplier<byte[]> before = () -> gzip(json(coffeeService.getAllCoffees()));
+        Supplier<byte[]> after = () -> menuSnapshot.all().orElseThrow().gzip();
+
+        double beforeOps = opsPerMs(before);
+        double afterOps = opsPerMs(after);
+        System.out.printf("menu %d cafes  before: %,.2f ops/ms  after: %,.0f ops/ms  (x%.0f)%n",
+                COFFEES, beforeOps, afterOps, afterOps / beforeOps);
+
+        // la mejora solo se imprime: una proporcion de tiempos fallaria al azar en una maquina cargada
+        assertThat(after.get()).isEqualTo(before.get());
+    }
+
+    private static double opsPerMs(Supplier<byte[]> path) {
+        long sink = 0;
+        for (int i = 0; i < OPERATIONS / 10; i++) {
+            sink += path.get().length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += path.get().length;
+        }
+        double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+        assertThat(sink).isPositive();
+        return OPERATIONS / elapsedMs;
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gammatech.coffee.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.gammatech.coffee.exceptions.ErrorCode;
+import com.gammatech.coffee.exceptions.GlobalExceptionHandler;
+import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+import com.gammatech.coffee.responses.ErrorResponse;
+
+// Throughput del camino 404: excepcion con pila y mensaje concatenado frente a la excepcion sin pila
+class NotFoundPathBenchmarkTests {
+
+    // profundidad aproximada de la pila de un controlador Spring MVC
+    private static final int STACK_DEPTH = 120;
+    private static final int OPERATIONS = 50_000;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void stacklessNotFoundKeepsTheMessage() {
+        LongFunction<ResponseEntity<ErrorResponse>> before = id -> {
+            try {
+                throwAt(STACK_DEPTH, () -> new RuntimeException("Cafe  con el id '" + id + "' no encontrado"));
+                return null;
+            } catch (RuntimeException ex) {
+                return ResponseEntity.status(404).body(new ErrorResponse(ErrorCode.RESOURCE_NOT_FOUND, ex.getMessage()));
+            }
+        };
+        LongFunction<ResponseEntity<ErrorResponse>> after = id -> {
+            try {
+                throwAt(STACK_DEPTH, () -> new ResourceNotFoundException("Cafe  con el id '%s' no encontrado", id));
+                return null;
+            } catch (ResourceNotFoundException ex) {
+                return handler.handleDomainException(ex);
+            }
+        };
+
+        double beforeOps = opsPerMs(before);
+        double afterOps = opsPerMs(after);
+        System.out.printf("404 path  before: %,.0f ops/ms  after: %,.0f ops/ms  (x%.1f)%n",
+                beforeOps, afterOps, afterOps / beforeOps);
+
+        // la mejora solo se imprime: una proporcion de tiempos fallaria al azar en una maquina cargada
+        assertThat(after.apply(7).getBody().getMessage()).isEqualTo("Cafe  con el id '7' no encontrado");
+    }
+
+    private static double opsPerMs(LongFunction<ResponseEntity<ErrorResponse>> path) {
+        long sink = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += path.apply(i).getBody().getMessage().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += path.apply(i).getBody().getMessage().length();
+        }
+        double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+        assertThat(sink).isPositive();
+        return OPERATIONS / elapsedMs;
+    }
+
+    private static void throwAt(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+}
@@ -0,0 +1,44 @@
+package com.gammatech.coffee.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+
+// Pedidos en memoria con la forma habitual: 20 cafes, 50 clientes y de 1 a 6 lineas por pedido
+final class OrderFixtures {
+
+    private OrderFixtures() {
+    }
+
+    static List<Order> orders(int count) {
+        List<Coffee> coffees = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Coffee coffee = new Coffee("Cafe " + i, 1.2 + i * 0.3, i % 3 == 0 ? null : "https://cdn.cafe.com/" + i + ".jpg");
+            coffee.setId((long) i);
+            coffees.add(coffee);
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int o = 0; o < count; o++) {
+            Customer customer = new Customer("Cliente " + o % 50, "cliente" + o % 50 + "@cafe.com",
+                    o % 2 == 0 ? null : "600000" + o);
+            customer.setId((long) (o % 50));
+            Order order = new Order(customer, LocalDateTime.now(), new ArrayList<>());
+            order.setId((long) o);
+            order.setOrderStatus(OrderStatus.values()[o % OrderStatus.values().length]);
+            for (int i = 0; i < 1 + o % 6; i++) {
+                OrderItem item = new OrderItem(order, coffees.get((o + i) % coffees.size()), 1 + i);
+                item.setSubtotal(item.calculateSubtotal());
+                order.getItems().add(item);
+            }
+            order.setTotal(order.calculateTotal());
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,68 @@
+package com.gammatech.coffee.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.gammatech.coffee.models.Order;
+
+// Bytes en el cable y tiempo de serializacion de 1.000 pedidos: configuracion anterior frente a la actual
+class OrderPayloadBenchmarkTests {
+
+    private static final int ORDERS = 1_000;
+    private static final int ITERATIONS = 30;
+
+    @Test
+    void compareOrderPayloadBeforeAndAfter() throws IOException {
+        List<Order> orders = OrderFixtures.orders(ORDERS);
+
+        ObjectMapper before = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper after = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .modulesToInstall(new BlackbirdModule())
+                .build();
+
+        Result baseline = measure(before, orders);
+        Result tuned = measure(after, orders);
+
+        System.out.printf("%-8s %12s %12s %12s%n", "mapper", "json bytes", "wire bytes", "ms/payload");
+        System.out.printf("%-8s %12d %12d %12.2f%n", "before", baseline.bytes(), baseline.bytes(), baseline.millis());
+        System.out.printf("%-8s %12d %12d %12.2f%n", "after", tuned.bytes(), tuned.gzipBytes(), tuned.millis());
+
+        assertThat(tuned.bytes()).isLessThan(baseline.bytes());
+        assertThat(tuned.gzipBytes()).isLessThan(tuned.bytes() / 5);
+    }
+
+    private static Result measure(ObjectMapper mapper, List<Order> orders) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(orders);
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        return new Result(json.length, gzip(json).length, millis);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private record Result(int bytes, int gzipBytes, double millis) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.gammatech.coffee.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryContentNegotiationTests {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void posTerminalPlacesAndPollsOrdersInBinary() throws Exception {
+        ObjectNode coffee = json.createObjectNode()
+                .put("name", "Cortado")
+                .put("price", 1.8)
+                .put("imageUrl", "https://cdn.cafe.com/cortado.jpg");
+        long coffeeId = create("/api/coffees", cbor, MediaType.APPLICATION_CBOR, coffee).get("id").asLong();
+        long customerId = create("/api/customers", smile, SMILE,
+                json.createObjectNode().put("name", "Ana").put("email", "ana@cafe.com")).get("id").asLong();
+
+        ObjectNode order = json.createObjectNode();
+        order.putObject("customer").put("id", customerId);
+        order.putArray("items").addObject()
+                .put("quantity", 2).putObject("coffee").put("id", coffeeId);
+        long orderId = create("/api/orders", cbor, MediaType.APPLICATION_CBOR, order).get("id").asLong();
+
+        byte[] asCbor = fetch("/api/orders/" + orderId, MediaType.APPLICATION_CBOR);
+        byte[] asSmile = fetch("/api/orders/" + orderId, SMILE);
+        byte[] asJson = fetch("/api/orders/" + orderId, MediaType.APPLICATION_JSON);
+
+        // mismo esquema en los tres formatos
+        JsonNode expected = json.readTree(asJson);
+        assertThat(cbor.readTree(asCbor)).isEqualTo(expected);
+        assertThat(smile.readTree(asSmile)).isEqualTo(expected);
+        assertThat(expected.get("items").get(0).get("coffee").get("name").asText()).isEqualTo("Cortado");
+        assertThat(expected.get("dateOrder").isTextual()).isTrue();
+        assertThat(asSmile.length).isLessThan(asJson.length);
+    }
+
+    @Test
+    void jsonRemainsTheDefault() throws Exception {
+        mockMvc.perform(get("/api/coffees"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/coffees").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void errorsAreEncodedInTheNegotiatedFormat() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/orders/{id}", 999_999).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cbor.readTree(body).get("code").asText()).isEqualTo("RESOURCE_NOT_FOUND");
+    }
+
+    private JsonNode create(String path, ObjectMapper format, MediaType type, JsonNode body) throws Exception {
+        byte[] response = mockMvc.perform(post(path).contentType(type).accept(type)
+                        .content(format.writeValueAsBytes(body)))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn().getResponse().getContentAsByteArray();
+        return format.readTree(response);
+    }
+
+    private byte[] fetch(String path, MediaType type) throws Exception {
+        return mockMvc.perform(get(path).accept(type))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
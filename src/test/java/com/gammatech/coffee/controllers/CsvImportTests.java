@@ -0,0 +1,148 @@
+package com.gammatech.coffee.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.service.CustomerService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CsvImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+        coffeeRepository.deleteAll();
+    }
+
+    @Test
+    void importsValidCustomersAndReportsRejectedRows() throws Exception {
+        customerRepository.save(new Customer("Existente", "existe@cafe.com", null));
+        StringBuilder csv = new StringBuilder("name,email,phone\n");
+        for (int i = 0; i < 1200; i++) {
+            csv.append("Cliente ").append(i).append(",cliente").append(i).append("@cafe.com,60000").append(i).append('\n');
+        }
+        csv.append("\"Perez, Ana\",ana@cafe.com,\n");   // linea 1202: coma entre comillas
+        csv.append(",sin-nombre@cafe.com,\n");          // linea 1203: nombre obligatorio
+        csv.append("Otra,cliente5@cafe.com,\n");        // linea 1204: repetido en el fichero
+        csv.append("Repetido,existe@cafe.com,\n");      // linea 1205: ya existe en la base de datos
+
+        mockMvc.perform(multipart("/api/customers/import").file(file(csv.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(1204))
+                .andExpect(jsonPath("$.imported").value(1201))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[*].line").value(contains(1203, 1204, 1205)));
+
+        assertThat(customerRepository.count()).isEqualTo(1202);
+        assertThat(customerRepository.findByEmail("ana@cafe.com").getName()).isEqualTo("Perez, Ana");
+        assertThat(customerService.searchCustomers("perez", 5)).extracting(Customer::getEmail)
+                .containsExactly("ana@cafe.com");
+    }
+
+    @Test
+    void importsCoffeesWithTheSameRulesAsTheApi() throws Exception {
+        String csv = """
+                name,price,imageUrl
+                Espresso,1.2,espresso.jpg
+                Gratis,0,gratis.jpg
+                Latte,caro,latte.jpg
+                Mocha,2.5,
+                Cortado,1.4,cortado.jpg
+                """;
+
+        mockMvc.perform(multipart("/api/coffees/import").file(file(csv)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3));
+
+        assertThat(coffeeRepository.findAll()).extracting(Coffee::getName)
+                .containsExactlyInAnyOrder("Espresso", "Cortado");
+    }
+
+    @Test
+    void streamsPlainCsvBodiesAndComparesKeysLikeTheCollation() throws Exception {
+        String csv = """
+                name,price,imageUrl
+                Café Bombón,1.6,bombon.jpg
+                CAFE BOMBON,1.6,bombon.jpg
+                Carajillo,1.9,carajillo.jpg
+                """;
+
+        mockMvc.perform(post("/api/coffees/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[*].line").value(contains(3)));
+
+        assertThat(coffeeRepository.findAll()).extracting(Coffee::getName)
+                .containsExactlyInAnyOrder("Café Bombón", "Carajillo");
+    }
+
+    @Test
+    void fallsBackToRowByRowWhenTheDatabaseRejectsAChunk() throws Exception {
+        customerRepository.save(new Customer("Ana", "ana@cafe.com", null));
+        // unicidad sin distinguir mayusculas, como la collation de MySQL; H2 no la aplica por defecto
+        jdbcTemplate.execute("alter table customer add column email_ci varchar(255) generated always as (lower(email))");
+        jdbcTemplate.execute("alter table customer add constraint uk_customer_email_ci unique (email_ci)");
+        try {
+            String csv = """
+                    name,email
+                    Nuevo,nuevo@cafe.com
+                    Ana otra vez,ANA@cafe.com
+                    Otro,otro@cafe.com
+                    """;
+
+            mockMvc.perform(post("/api/customers/import").contentType("text/csv").content(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.failed").value(1))
+                    .andExpect(jsonPath("$.errors[*].line").value(contains(3)));
+
+            assertThat(customerRepository.findAll()).extracting(Customer::getEmail)
+                    .containsExactlyInAnyOrder("ana@cafe.com", "nuevo@cafe.com", "otro@cafe.com");
+        } finally {
+            jdbcTemplate.execute("alter table customer drop constraint uk_customer_email_ci");
+            jdbcTemplate.execute("alter table customer drop column email_ci");
+        }
+    }
+
+    @Test
+    void rejectsFilesWithoutRequiredColumns() throws Exception {
+        mockMvc.perform(multipart("/api/customers/import").file(file("nombre,correo\nAna,ana@cafe.com\n")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "datos.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,168 @@
+package com.gammatech.coffee.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+// Falla si algun endpoint de pedidos lanza mas sentencias SQL que las previstas (N+1). SqlStatementCounter cuenta en
+// el DataSource, asi que entran tambien las de order_view por JDBC
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderControllerQueryCountTests {
+
+    private static final int MAX_READ_STATEMENTS = 2;
+    // bloqueo del pedido + select del pedido + update + upsert de order_view
+    private static final int MAX_WRITE_STATEMENTS = 4;
+    // cliente + pedidos + pedidos archivados
+    private static final int MAX_HISTORY_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+
+    private List<Coffee> coffees;
+    private Customer customer;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        coffees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            coffees.add(coffeeRepository.save(new Coffee("cafe-" + i, 1.5 + i, "img-" + i)));
+        }
+        customer = customerRepository.save(new Customer("Ana", "ana@cafe.com", "600000000"));
+        for (int o = 0; o < 10; o++) {
+            Order newOrder = new Order(customer, LocalDateTime.now(), new ArrayList<>());
+            newOrder.setOrderStatus(OrderStatus.PENDING);
+            for (Coffee coffee : coffees) {
+                OrderItem item = new OrderItem(newOrder, coffee, 2);
+                item.setSubtotal(item.calculateSubtotal());
+                newOrder.getItems().add(item);
+            }
+            newOrder.setTotal(newOrder.calculateTotal());
+            order = orderRepository.save(newOrder);
+        }
+        // los pedidos se insertan sin pasar por OrderService
+        orderViewProjector.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void getAllOrdersUsesBoundedStatements() throws Exception {
+        assertStatements(get("/api/orders"), MAX_READ_STATEMENTS);
+    }
+
+    @Test
+    void getOrderByIdUsesBoundedStatements() throws Exception {
+        assertStatements(get("/api/orders/{id}", order.getId()), MAX_READ_STATEMENTS);
+    }
+
+    @Test
+    void getOrdersByStatusUsesBoundedStatements() throws Exception {
+        assertStatements(get("/api/orders/status/{status}", OrderStatus.PENDING), MAX_READ_STATEMENTS);
+    }
+
+    @Test
+    void getOrdersByCustomerUsesBoundedStatements() throws Exception {
+        assertStatements(get("/api/orders/customer/{customerId}", customer.getId()), MAX_HISTORY_STATEMENTS);
+    }
+
+    @Test
+    void updateOrderStatusUsesBoundedStatements() throws Exception {
+        assertStatements(patch("/api/orders/{id}/status", order.getId()).param("status", "PROCESSING"),
+                MAX_WRITE_STATEMENTS);
+    }
+
+    @Test
+    void patchOrderItemsOnlyTouchesChangedLines() throws Exception {
+        List<Long> itemIdsBefore = itemIds(order.getId());
+        String delta = """
+                [{"coffee": {"id": %d}, "quantity": 7}, {"coffee": {"id": %d}, "quantity": 0}]
+                """.formatted(coffees.get(0).getId(), coffees.get(1).getId());
+
+        // bloqueo del pedido + select del pedido + update de la linea + delete de la linea + update del total
+        // + upsert de order_view
+        assertStatements(patch("/api/orders/{id}/items", order.getId())
+                .contentType(MediaType.APPLICATION_JSON).content(delta), 6);
+
+        List<Long> itemIdsAfter = itemIds(order.getId());
+        assertThat(itemIdsAfter).hasSize(4);
+        assertThat(itemIdsBefore).containsAll(itemIdsAfter);
+    }
+
+    @Test
+    void updateOrderKeepsIdsOfUnchangedLines() throws Exception {
+        List<Long> itemIdsBefore = itemIds(order.getId());
+        StringBuilder items = new StringBuilder();
+        for (Coffee coffee : coffees) {
+            items.append(items.isEmpty() ? "" : ",")
+                    .append("{\"coffee\": {\"id\": ").append(coffee.getId()).append("}, \"quantity\": 2}");
+        }
+        String body = "{\"customer\": {\"id\": " + customer.getId() + "}, \"items\": [" + items + "]}";
+
+        // bloqueo + select del pedido + upsert de order_view: ni inserts ni deletes de lineas
+        assertStatements(put("/api/orders/{id}", order.getId())
+                .contentType(MediaType.APPLICATION_JSON).content(body), 3);
+
+        assertThat(itemIds(order.getId())).containsExactlyInAnyOrderElementsOf(itemIdsBefore);
+    }
+
+    private List<Long> itemIds(Long orderId) {
+        return orderRepository.findFullById(orderId).orElseThrow().getItems().stream()
+                .map(OrderItem::getId)
+                .toList();
+    }
+
+    private void assertStatements(RequestBuilder request, int max) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$..items[0].coffee.name").exists());
+        assertThat(SqlStatementCounter.count()).isBetween(1, max);
+    }
+}
@@ -0,0 +1,119 @@
+package com.gammatech.coffee.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.gammatech.coffee.CoffeeApplication;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.service.CoffeeService;
+import com.gammatech.coffee.service.CustomerService;
+
+// Varias instancias de la aplicacion en la misma JVM compartiendo una base de datos H2 en memoria
+class MultiInstanceInvalidationTests {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void jdbcBusPropagatesChangesToEveryNode() {
+        String database = "cluster_" + UUID.randomUUID().toString().replace("-", "");
+        for (int i = 0; i < 3; i++) {
+            startNode(database, "coffee.invalidation.bus=jdbc", "coffee.invalidation.poll-interval=PT0.05S");
+        }
+        CoffeeService writer = nodes.get(0).getBean(CoffeeService.class);
+
+        Coffee coffee = writer.createCoffee(new Coffee("Espresso Cluster", 1.5, "espresso.jpg"));
+        awaitOnPeers(node -> !coffees(node, "espresso cluster").isEmpty());
+
+        writer.updateCoffee(coffee.getId(), new Coffee("Ristretto Cluster", 1.7, "ristretto.jpg"));
+        awaitOnPeers(node -> coffees(node, "espresso cluster").isEmpty()
+                && coffees(node, "ristretto").size() == 1);
+
+        // el cambio puede salir de cualquier nodo
+        CustomerService other = nodes.get(2).getBean(CustomerService.class);
+        Customer customer = other.createCustomer(new Customer("Marta", "marta@cluster.com", null));
+        other.updateCustomerEmail(customer.getId(), "mruiz@cafe.com");
+        awaitOnNode(0, () -> customers(nodes.get(0), "mruiz").size() == 1
+                && customers(nodes.get(0), "cluster").isEmpty());
+
+        writer.deleteCoffee(coffee.getId());
+        awaitOnPeers(node -> coffees(node, "ristretto").isEmpty());
+    }
+
+    @Test
+    void loopbackBusDeliversRightAfterCommit() {
+        String database = "cluster_" + UUID.randomUUID().toString().replace("-", "");
+        String channel = "channel-" + UUID.randomUUID();
+        for (int i = 0; i < 2; i++) {
+            startNode(database, "coffee.invalidation.bus=loopback", "coffee.invalidation.channel=" + channel);
+        }
+        CustomerService writer = nodes.get(0).getBean(CustomerService.class);
+
+        Customer customer = writer.createCustomer(new Customer("Pablo", "pablo@cluster.com", null));
+        writer.updateCustomerEmail(customer.getId(), "pgil@cafe.com");
+
+        // entrega sincrona tras el commit: sin esperas
+        assertThat(customers(nodes.get(1), "pgil")).extracting(Customer::getId).containsExactly(customer.getId());
+        assertThat(customers(nodes.get(1), "cluster")).isEmpty();
+    }
+
+    // METODOS
+
+    private void startNode(String database, String... properties) {
+        List<String> all = new ArrayList<>(List.of(properties));
+        all.add("spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        nodes.add(new SpringApplicationBuilder(CoffeeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(all.toArray(String[]::new))
+                .run());
+    }
+
+    private void awaitOnPeers(Predicate<ConfigurableApplicationContext> ok) {
+        for (int i = 1; i < nodes.size(); i++) {
+            ConfigurableApplicationContext node = nodes.get(i);
+            awaitOnNode(i, () -> ok.test(node));
+        }
+    }
+
+    private void awaitOnNode(int index, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("nodo %d sin actualizar", index).isLessThan(deadline);
+            sleep();
+        }
+    }
+
+    private static List<Coffee> coffees(ConfigurableApplicationContext node, String query) {
+        return node.getBean(CoffeeService.class).searchCoffees(query, 10);
+    }
+
+    private static List<Customer> customers(ConfigurableApplicationContext node, String query) {
+        return node.getBean(CustomerService.class).searchCustomers(query, 10);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
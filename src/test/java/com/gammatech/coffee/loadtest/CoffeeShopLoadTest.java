@@ -0,0 +1,230 @@
+package com.gammatech.coffee.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.OrderStatus;
+
+/*
+ * Prueba de carga con trafico realista de cafeteria contra la aplicacion arrancada sobre H2.
+ * Se ejecuta con el perfil de Maven "load-test":
+ *   mvn test -Pload-test -Dload.durationSeconds=60 -Dload.concurrency=32 -Dload.baseline=target/load-test/anterior.csv
+ * El informe CSV queda en target/load-test/.
+ * El ThrottlingFilter va activo con los valores de produccion (src/main/resources/application.properties): todo el
+ * trafico sale de una IP, asi que los pedidos nuevos se quedan en unos 5/s y el resto se cuenta como rechazado.
+ * Con -Dload.throttling=false se mide la aplicacion sin limites; el informe lleva la configuracion en el nombre.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "coffee.throttling.enabled=${load.throttling:true}",
+        "coffee.throttling.max-concurrent-requests=8",
+        "coffee.throttling.retry-after-seconds=1",
+        "coffee.throttling.max-tracked-clients=10000",
+        "coffee.throttling.routes[0].method=POST",
+        "coffee.throttling.routes[0].pattern=/api/orders",
+        "coffee.throttling.routes[0].capacity=20",
+        "coffee.throttling.routes[0].refill-per-second=5",
+        "coffee.throttling.routes[1].method=PUT",
+        "coffee.throttling.routes[1].pattern=/api/orders/*",
+        "coffee.throttling.routes[1].capacity=20",
+        "coffee.throttling.routes[1].refill-per-second=5",
+        "coffee.throttling.routes[2].method=PATCH",
+        "coffee.throttling.routes[2].pattern=/api/orders/*/items",
+        "coffee.throttling.routes[2].capacity=20",
+        "coffee.throttling.routes[2].refill-per-second=5" })
+class CoffeeShopLoadTest {
+
+    private static final boolean THROTTLING = !"false".equals(System.getProperty("load.throttling"));
+
+    private static final int CUSTOMERS = Integer.getInteger("load.customers", 50);
+    private static final int COFFEES = Integer.getInteger("load.coffees", 20);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 20);
+
+    private static final String BROWSE_MENU = "GET /api/coffees";
+    private static final String CREATE_ORDER = "POST /api/orders";
+    private static final String ADVANCE_STATUS = "PATCH /api/orders/{id}/status";
+    private static final String ORDER_HISTORY = "GET /api/orders/customer/{customerId}";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final ConcurrentLinkedQueue<long[]> openOrders = new ConcurrentLinkedQueue<>();
+    private final List<Long> coffeeIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> customerIds = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void replayCoffeeShopTraffic() throws Exception {
+        for (String endpoint : List.of(BROWSE_MENU, CREATE_ORDER, ADVANCE_STATUS, ORDER_HISTORY)) {
+            recorders.put(endpoint, new LatencyRecorder(endpoint));
+        }
+        seed();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        nextOperation();
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        List<LatencyRecorder.EndpointStats> stats = recorders.values().stream()
+                .map(recorder -> recorder.stats(elapsedSeconds))
+                .toList();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        String mode = THROTTLING ? "throttled" : "unthrottled";
+        LoadReport.write(Path.of("target", "load-test", "coffee-shop-" + mode + "-" + timestamp + ".csv"), stats);
+        String baseline = System.getProperty("load.baseline");
+        LoadReport.print("Limites (coffee.throttling): " + (THROTTLING ? "produccion" : "desactivados"), stats,
+                baseline == null ? null : Path.of(baseline));
+
+        assertThat(stats).allSatisfy(s -> assertThat(s.errors()).isZero());
+    }
+
+    // mezcla: 50% carta, 20% nuevos pedidos, 15% avance de estado, 15% historial del cliente
+    private void nextOperation() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dice = random.nextInt(100);
+        if (dice < 50) {
+            call(BROWSE_MENU, get("/api/coffees?page=" + random.nextInt(Math.max(1, COFFEES / 10)) + "&size=10"));
+        } else if (dice < 70) {
+            createOrder(random);
+        } else if (dice < 85 && !openOrders.isEmpty()) {
+            advanceStatus();
+        } else {
+            call(ORDER_HISTORY, get("/api/orders/customer/" + pick(customerIds, random)));
+        }
+    }
+
+    private void createOrder(ThreadLocalRandom random) throws Exception {
+        ObjectNode order = objectMapper.createObjectNode();
+        order.putObject("customer").put("id", pick(customerIds, random));
+        ArrayNode items = order.putArray("items");
+        List<Long> shuffled = new ArrayList<>(coffeeIds);
+        Collections.shuffle(shuffled, random);
+        for (Long coffeeId : shuffled.subList(0, 1 + random.nextInt(Math.min(10, shuffled.size())))) {
+            ObjectNode item = items.addObject();
+            item.putObject("coffee").put("id", coffeeId);
+            item.put("quantity", 1 + random.nextInt(3));
+        }
+        JsonNode created = call(CREATE_ORDER, post("/api/orders", order));
+        if (created != null) {
+            openOrders.add(new long[] { created.get("id").asLong(), OrderStatus.PENDING.ordinal() });
+        }
+    }
+
+    private void advanceStatus() throws Exception {
+        long[] order = openOrders.poll();
+        if (order == null) {
+            return;
+        }
+        OrderStatus next = OrderStatus.values()[(int) order[1] + 1];
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/orders/" + order[0] + "/status?status=" + next))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        if (call(ADVANCE_STATUS, request) != null && next != OrderStatus.DELIVERED) {
+            openOrders.add(new long[] { order[0], next.ordinal() });
+        }
+    }
+
+    // METODOS
+
+    private void seed() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < COFFEES; i++) {
+            ObjectNode coffee = objectMapper.createObjectNode()
+                    .put("name", "Cafe " + run + "-" + i)
+                    .put("price", 1.5 + i % 7 * 0.4)
+                    .put("imageUrl", "https://cdn.cafe.com/" + i + ".jpg");
+            coffeeIds.add(send(post("/api/coffees", coffee)).get("id").asLong());
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            ObjectNode customer = objectMapper.createObjectNode()
+                    .put("name", "Cliente " + i)
+                    .put("email", "cliente-" + run + "-" + i + "@cafe.com");
+            customerIds.add(send(post("/api/customers", customer)).get("id").asLong());
+        }
+    }
+
+    private JsonNode call(String endpoint, HttpRequest request) throws Exception {
+        LatencyRecorder recorder = recorders.get(endpoint);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() == 429 || response.statusCode() == 503) {
+            recorder.recordRejected();
+            return null;
+        }
+        if (response.statusCode() >= 400) {
+            recorder.recordError();
+            return null;
+        }
+        recorder.record(elapsed);
+        return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    private JsonNode send(HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isLessThan(400);
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, JsonNode body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Long pick(List<Long> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
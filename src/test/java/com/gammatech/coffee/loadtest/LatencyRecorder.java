@@ -0,0 +1,54 @@
+package com.gammatech.coffee.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latencias de un endpoint: se guardan todas (en microsegundos) y se ordenan al final
+class LatencyRecorder {
+
+    private final String endpoint;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private long[] samples = new long[1024];
+    private int count;
+
+    LatencyRecorder(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos / 1_000;
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    // 429/503 del ThrottlingFilter: el limite funcionando, no un fallo
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    synchronized EndpointStats stats(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new EndpointStats(endpoint, count, errors.get(), count / elapsedSeconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                count == 0 ? 0 : sorted[count - 1] / 1_000.0, rejected.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000.0;
+    }
+
+    record EndpointStats(String endpoint, long requests, long errors, double throughput,
+            double p50Ms, double p90Ms, double p99Ms, double maxMs, long rejected) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.gammatech.coffee.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.gammatech.coffee.loadtest.LatencyRecorder.EndpointStats;
+
+// Informe CSV por endpoint; si se indica un informe anterior se imprime la comparacion
+// (rejected va al final para poder comparar con informes anteriores a esa columna)
+class LoadReport {
+
+    private static final String HEADER = "endpoint,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,max_ms,rejected";
+
+    private LoadReport() {
+    }
+
+    static void write(Path file, List<EndpointStats> stats) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (EndpointStats s : stats) {
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d%n", s.endpoint(),
+                    s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs(),
+                    s.rejected()));
+        }
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, csv);
+    }
+
+    static void print(String title, List<EndpointStats> stats, Path baselineFile) throws IOException {
+        Map<String, String[]> baseline = new HashMap<>();
+        if (baselineFile != null && Files.exists(baselineFile)) {
+            for (String line : Files.readAllLines(baselineFile)) {
+                if (!line.equals(HEADER) && !line.isBlank()) {
+                    String[] columns = line.split(",");
+                    baseline.put(columns[0], columns);
+                }
+            }
+        }
+        System.out.println(title);
+        System.out.printf(Locale.ROOT, "%-36s %9s %7s %9s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors",
+                "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointStats s : stats) {
+            System.out.printf(Locale.ROOT, "%-36s %9d %7d %9d %10.1f %9.2f %9.2f %9.2f %9.2f%n", s.endpoint(),
+                    s.requests(), s.errors(), s.rejected(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(),
+                    s.maxMs());
+            String[] previous = baseline.get(s.endpoint());
+            if (previous != null) {
+                System.out.printf(Locale.ROOT, "%-36s %9s %7s %9s %+9.1f%% %+8.1f%% %+8.1f%% %+8.1f%%%n",
+                        "  vs baseline", "", "", "", delta(s.throughput(), previous[3]), delta(s.p50Ms(), previous[4]),
+                        delta(s.p90Ms(), previous[5]), delta(s.p99Ms(), previous[6]));
+            }
+        }
+    }
+
+    private static double delta(double current, String previous) {
+        double before = Double.parseDouble(previous);
+        return before == 0 ? 0 : (current - before) / before * 100;
+    }
+}
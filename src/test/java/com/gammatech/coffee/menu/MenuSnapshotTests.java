@@ -0,0 +1,146 @@
+package com.gammatech.coffee.menu;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.responses.CoffeePageResponse;
+import com.gammatech.coffee.service.CoffeeService;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MenuSnapshotTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CoffeeService coffeeService;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+
+    private final List<Coffee> coffees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            coffees.add(coffeeService.createCoffee(new Coffee("Cafe carta " + i, 1.5 + i, "carta-" + i + ".jpg")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        coffeeRepository.deleteAll();
+        menuSnapshot.invalidate();
+    }
+
+    @Test
+    void servesTheSameBytesJacksonWouldWithoutQueryingAgain() throws Exception {
+        byte[] expected = objectMapper.writeValueAsBytes(coffeeService.getAllCoffees());
+        byte[] plain = getBytes("/api/coffees/all");
+        assertThat(plain).isEqualTo(expected);
+
+        SqlStatementCounter.reset();
+        byte[] gzipped = mockMvc.perform(get("/api/coffees/all").accept(MediaType.ALL)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(SqlStatementCounter.count()).isZero();
+        assertThat(gunzip(gzipped)).isEqualTo(expected);
+
+        mockMvc.perform(get("/api/coffees/all").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        // CBOR y Smile siguen pasando por la entidad
+        mockMvc.perform(get("/api/coffees/all").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void pagesMatchThePagedQueryIncludingUncachedSizes() throws Exception {
+        for (int size : new int[] { 2, 7 }) {
+            for (int page = 0; page < 4; page++) {
+                Page<Coffee> expected = coffeeService.getAllPageable(page, size);
+                byte[] body = getBytes("/api/coffees?page=" + page + "&size=" + size);
+                assertThat(body).isEqualTo(objectMapper.writeValueAsBytes(new CoffeePageResponse(expected.getContent(),
+                        (int) expected.getTotalElements(), expected.getTotalPages(), expected.getNumber())));
+            }
+        }
+    }
+
+    @Test
+    void uncachedPagesContinueWhereTheCachedOnesEnd() throws Exception {
+        for (int i = 5; i < 13; i++) {
+            coffees.add(coffeeService.createCoffee(new Coffee("Cafe carta " + i, 1.5 + i, "carta-" + i + ".jpg")));
+        }
+        // coffee.menu.pages=5: con size=2 las paginas 5 y 6 salen de la consulta
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < 7; page++) {
+            objectMapper.readTree(getBytes("/api/coffees?page=" + page + "&size=2")).get("coffees")
+                    .forEach(coffee -> ids.add(coffee.get("id").asLong()));
+        }
+        assertThat(ids).isSorted().containsExactlyElementsOf(coffees.stream().map(Coffee::getId).toList());
+    }
+
+    @Test
+    void catalogChangesRebuildTheSnapshot() throws Exception {
+        getBytes("/api/coffees/all");
+        Coffee first = coffees.get(0);
+
+        mockMvc.perform(put("/api/coffees/{id}", first.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Cafe carta renombrado\", \"price\": 3.0, \"imageUrl\": \"nuevo.jpg\"}"))
+                .andExpect(status().isOk());
+        assertThat(objectMapper.readTree(getBytes("/api/coffees/all")).get(0).get("name").asText())
+                .isEqualTo("Cafe carta renombrado");
+
+        coffeeService.deleteCoffee(first.getId());
+        assertThat(objectMapper.readTree(getBytes("/api/coffees/all"))).hasSize(coffees.size() - 1);
+        assertThat(objectMapper.readTree(getBytes("/api/coffees?page=0&size=10")).get("totalElements").asInt())
+                .isEqualTo(coffees.size() - 1);
+    }
+
+    // METODOS
+
+    private byte[] getBytes(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.gammatech.coffee.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.handler;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderViewTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void readsServeTheProjectedDocumentWithOneQuery() throws Exception {
+        long coffeeId = createCoffee("Café con leche");
+        long customerId = createCustomer("Lucía", "lucia@cafe.com");
+        JsonNode created = createOrder(customerId, coffeeId);
+        long orderId = created.get("id").asLong();
+
+        SqlStatementCounter.reset();
+        JsonNode byId = read("/api/orders/" + orderId);
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(byId).isEqualTo(created);
+
+        SqlStatementCounter.reset();
+        JsonNode pending = read("/api/orders/status/PENDING");
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+        assertThat(pending).containsExactly(created);
+
+        // sin Accept o con Accept */* tambien se sirve el documento
+        mockMvc.perform(get("/api/orders/{id}", orderId).accept(MediaType.ALL))
+                .andExpect(handler().methodName("getOrderDocumentById"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/orders/customer/{customerId}", customerId))
+                .andExpect(handler().methodName("getOrderDocumentsByCustomer"));
+
+        // mismo contenido que la serializacion de la entidad (CBOR/Smile siguen ese camino)
+        assertThat(read("/api/orders/customer/" + customerId)).containsExactly(created);
+        assertThat(orderViewRepository.findById(orderId).orElseThrow().getProjectionVersion())
+                .isEqualTo(OrderViewProjector.VERSION);
+    }
+
+    @Test
+    void writesKeepTheViewInStep() throws Exception {
+        long coffeeId = createCoffee("Cortado");
+        long customerId = createCustomer("Pablo", "pablo@cafe.com");
+        long orderId = createOrder(customerId, coffeeId).get("id").asLong();
+
+        mockMvc.perform(patch("/api/orders/{id}/status", orderId).param("status", "PROCESSING"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/status/PENDING")).andExpect(status().isNoContent());
+        assertThat(read("/api/orders/" + orderId).get("orderStatus").asText()).isEqualTo("PROCESSING");
+
+        // el cambio de nombre del cafe se propaga en segundo plano
+        ObjectNode renamed = json.createObjectNode().put("name", "Cortado largo").put("price", 1.9)
+                .put("imageUrl", "https://cdn.cafe.com/cortado.jpg");
+        mockMvc.perform(put("/api/coffees/{id}", coffeeId).contentType(MediaType.APPLICATION_JSON)
+                .content(renamed.toString())).andExpect(status().isOk());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!coffeeName(orderId).equals("Cortado largo") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(coffeeName(orderId)).isEqualTo("Cortado largo");
+
+        mockMvc.perform(delete("/api/orders/{id}", orderId)).andExpect(status().isOk());
+        assertThat(orderViewRepository.existsById(orderId)).isFalse();
+        mockMvc.perform(get("/api/orders/{id}", orderId)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rebuildRestoresMissingAndRemovesOrphanDocuments() throws Exception {
+        long coffeeId = createCoffee("Americano");
+        long customerId = createCustomer("Marta", "marta@cafe.com");
+        JsonNode first = createOrder(customerId, coffeeId);
+        JsonNode second = createOrder(customerId, coffeeId);
+
+        orderViewRepository.deleteById(first.get("id").asLong());
+        orderRepository.deleteById(second.get("id").asLong());
+        assertThat(orderViewRepository.count()).isEqualTo(1);
+
+        assertThat(orderViewProjector.rebuild()).isEqualTo(1);
+        assertThat(orderViewRepository.findAll()).singleElement()
+                .satisfies(view -> assertThat(view.getOrderId()).isEqualTo(first.get("id").asLong()));
+        assertThat(read("/api/orders/customer/" + customerId)).containsExactly(first);
+    }
+
+    @Test
+    void olderReadsDoNotOverwriteNewerDocumentsAndReconcileRepairsTheRest() throws Exception {
+        long coffeeId = createCoffee("Lágrima");
+        long customerId = createCustomer("Irene", "irene@cafe.com");
+        long orderId = createOrder(customerId, coffeeId).get("id").asLong();
+
+        // lectura anterior al cambio de estado: su proyeccion tardia no deshace el cambio
+        Order before = orderRepository.findAllByIdIn(List.of(orderId)).get(0);
+        mockMvc.perform(patch("/api/orders/{id}/status", orderId).param("status", "PROCESSING"))
+                .andExpect(status().isOk());
+        orderViewProjector.project(before);
+        assertThat(read("/api/orders/" + orderId).get("orderStatus").asText()).isEqualTo("PROCESSING");
+        assertThat(orderViewRepository.findById(orderId).orElseThrow().getOrderVersion())
+                .isEqualTo(before.getVersion() + 1);
+
+        // sin fila: los listados lo siguen devolviendo y reconcile la recupera
+        orderViewRepository.deleteById(orderId);
+        assertThat(read("/api/orders/status/PROCESSING")).singleElement()
+                .satisfies(order -> assertThat(order.get("id").asLong()).isEqualTo(orderId));
+        assertThat(read("/api/orders/customer/" + customerId)).singleElement()
+                .satisfies(order -> assertThat(order.get("id").asLong()).isEqualTo(orderId));
+        orderViewProjector.reconcile();
+        assertThat(orderViewRepository.existsById(orderId)).isTrue();
+
+        // fila de una version anterior del pedido (una proyeccion perdida)
+        jdbcTemplate.update("update order_view set order_version = order_version - 1, order_status = 0,"
+                + " document = '{}' where order_id = ?", orderId);
+        assertThat(read("/api/orders/status/PROCESSING")).singleElement()
+                .satisfies(order -> assertThat(order.get("orderStatus").asText()).isEqualTo("PROCESSING"));
+        assertThat(read("/api/orders/" + orderId).get("orderStatus").asText()).isEqualTo("PROCESSING");
+        assertThat(read("/api/orders/customer/" + customerId)).singleElement()
+                .satisfies(order -> assertThat(order.get("orderStatus").asText()).isEqualTo("PROCESSING"));
+        orderViewProjector.reconcile();
+        assertThat(read("/api/orders/" + orderId).get("orderStatus").asText()).isEqualTo("PROCESSING");
+    }
+
+    @Test
+    void aFailedProjectionRollsBackTheOrder() throws Exception {
+        long coffeeId = createCoffee("Bombón");
+        long customerId = createCustomer("Rechazado", "rechazado@cafe.com");
+        jdbcTemplate.execute("alter table order_view add constraint ck_order_view_test check (customer_name <> 'Rechazado')");
+        try {
+            ObjectNode order = json.createObjectNode();
+            order.putObject("customer").put("id", customerId);
+            order.putArray("items").addObject().put("quantity", 1).putObject("coffee").put("id", coffeeId);
+            mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(order.toString()))
+                    .andExpect(status().isConflict());
+        } finally {
+            jdbcTemplate.execute("alter table order_view drop constraint ck_order_view_test");
+        }
+        assertThat(orderRepository.count()).isZero();
+        assertThat(orderViewRepository.count()).isZero();
+    }
+
+    // METODOS
+
+    private String coffeeName(long orderId) throws Exception {
+        return json.readTree(orderViewRepository.findDocumentById(orderId).orElseThrow().json())
+                .get("items").get(0).get("coffee").get("name").asText();
+    }
+
+    private JsonNode read(String path) throws Exception {
+        String body = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return json.readTree(body);
+    }
+
+    private long createCoffee(String name) throws Exception {
+        ObjectNode coffee = json.createObjectNode().put("name", name).put("price", 1.8)
+                .put("imageUrl", "https://cdn.cafe.com/cafe.jpg");
+        return create("/api/coffees", coffee).get("id").asLong();
+    }
+
+    private long createCustomer(String name, String email) throws Exception {
+        return create("/api/customers", json.createObjectNode().put("name", name).put("email", email))
+                .get("id").asLong();
+    }
+
+    private JsonNode createOrder(long customerId, long coffeeId) throws Exception {
+        ObjectNode order = json.createObjectNode();
+        order.putObject("customer").put("id", customerId);
+        order.putArray("items").addObject().put("quantity", 2).putObject("coffee").put("id", coffeeId);
+        return create("/api/orders", order);
+    }
+
+    private JsonNode create(String path, JsonNode body) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return json.readTree(response);
+    }
+}
@@ -0,0 +1,156 @@
+package com.gammatech.coffee.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.gammatech.coffee.archive.OrderArchiver;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.repository.ArchivedOrderRepository;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderPurgerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Coffee coffee;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        coffee = coffeeRepository.save(new Coffee("Cafe purga", 1.5, "purga.jpg"));
+        customer = customerRepository.save(new Customer("Raul", "raul@purga.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedOrderRepository.deleteAll();
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void purgesOldOrdersFromHotTableArchiveAndViewInBulk() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            save(OrderStatus.DELIVERED, LocalDateTime.now().minusDays(400), 3);
+        }
+        // pasa al archivo (coffee.archive.older-than=30d)
+        orderArchiver.archiveExpiredOrders();
+        for (int i = 0; i < 30; i++) {
+            save(OrderStatus.DELIVERED, LocalDateTime.now().minusDays(400), 3);
+        }
+        Order recent = save(OrderStatus.DELIVERED, LocalDateTime.now().minusDays(10), 1);
+        Order oldPending = save(OrderStatus.PENDING, LocalDateTime.now().minusDays(400), 1);
+        orderViewProjector.rebuild();
+        assertThat(archivedOrderRepository.count()).isEqualTo(30);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/orders/purge").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statuses\": [\"DELIVERED\"], \"olderThan\": \"P365D\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders").value(30))
+                .andExpect(jsonPath("$.archivedOrders").value(30));
+        // un lote por tabla: select de ids + deletes de lineas, pedidos y vista; select + delete en el archivo
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(6);
+
+        assertThat(archivedOrderRepository.count()).isZero();
+        assertThat(orderRepository.findAll()).extracting(Order::getId)
+                .containsExactlyInAnyOrder(recent.getId(), oldPending.getId());
+        assertThat(orderViewRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsPurgeWithoutCriteria() throws Exception {
+        mockMvc.perform(post("/api/orders/purge").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void neverPurgesOrdersThatCanStillChange() throws Exception {
+        Order pending = save(OrderStatus.PENDING, LocalDateTime.now().minusDays(1), 1);
+        save(OrderStatus.DELIVERED, LocalDateTime.now().minusDays(1), 1);
+
+        mockMvc.perform(post("/api/orders/purge").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statuses\": [\"PROCESSING\", \"DELIVERED\"], \"olderThan\": \"PT0S\"}"))
+                .andExpect(status().isBadRequest());
+        // sin statuses: solo los de coffee.retention.statuses
+        mockMvc.perform(post("/api/orders/purge").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"olderThan\": \"PT0S\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders").value(1));
+
+        assertThat(orderRepository.findAll()).extracting(Order::getId).containsExactly(pending.getId());
+    }
+
+    @Test
+    void referencedCoffeeAndCustomerCannotBeDeleted() throws Exception {
+        Order order = save(OrderStatus.PENDING, LocalDateTime.now(), 1);
+
+        mockMvc.perform(delete("/api/coffees/{id}", coffee.getId()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("RESOURCE_IN_USE"));
+        mockMvc.perform(delete("/api/customers/{id}", customer.getId()))
+                .andExpect(status().isConflict());
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(delete("/api/orders/{id}", order.getId())).andExpect(status().isOk());
+        // delete de lineas + delete del pedido + delete de su fila de order_view
+        assertThat(SqlStatementCounter.count()).isEqualTo(3);
+        mockMvc.perform(delete("/api/orders/{id}", order.getId())).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/coffees/{id}", coffee.getId())).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/customers/{id}", customer.getId())).andExpect(status().isOk());
+    }
+
+    private Order save(OrderStatus status, LocalDateTime date, int items) {
+        Order order = new Order(customer, date, new ArrayList<>());
+        order.setOrderStatus(status);
+        OrderItem item = new OrderItem(order, coffee, items);
+        item.setSubtotal(item.calculateSubtotal());
+        order.getItems().add(item);
+        order.setTotal(order.calculateTotal());
+        return orderRepository.save(order);
+    }
+}
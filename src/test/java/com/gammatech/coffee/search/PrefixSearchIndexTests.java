@@ -0,0 +1,99 @@
+package com.gammatech.coffee.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.gammatech.coffee.models.Customer;
+
+class PrefixSearchIndexTests {
+
+    private final PrefixSearchIndex<Customer> index = new PrefixSearchIndex<>(Customer::getId,
+            customer -> List.of(customer.getName(), customer.getEmail()));
+
+    @Test
+    void matchesWordPrefixesIgnoringCaseAndAccents() {
+        index.put(customer(1L, "José Martínez", "jose@cafe.com"));
+        index.put(customer(2L, "Marta López", "marta@cafe.com"));
+        index.put(customer(3L, "Pedro", "pedro.martin@correo.es"));
+
+        assertThat(ids(index.search("mart", 10))).containsExactly(2L, 3L, 1L);
+        assertThat(ids(index.search("JOSE mar", 10))).containsExactly(1L);
+        assertThat(ids(index.search("correo", 10))).containsExactly(3L);
+        assertThat(index.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void keepsOnlyTopKAndReflectsUpdatesAndRemovals() {
+        for (long id = 1; id <= 100; id++) {
+            index.put(customer(id, "Cliente " + id, "cliente" + id + "@cafe.com"));
+        }
+        assertThat(index.search("cliente", 5)).hasSize(5);
+
+        index.put(customer(7L, "Zoe", "zoe@cafe.com"));
+        assertThat(ids(index.search("zoe", 10))).containsExactly(7L);
+        assertThat(ids(index.search("cliente7", 10))).doesNotContain(7L);
+
+        index.remove(7L);
+        assertThat(index.search("zoe", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(99);
+    }
+
+    @Test
+    void verifiesTokensLongerThanTheIndexedPrefix() {
+        index.put(customer(1L, "Cappuccinoteca", "a@a.com"));
+        index.put(customer(2L, "Cappuccinotazo", "b@b.com"));
+
+        assertThat(ids(index.search("cappuccinotec", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void keepsServingTheOldIndexWhileRebuilding() {
+        index.put(customer(1L, "Ana", "ana@cafe.com"));
+        List<Long> foundDuringRebuild = new ArrayList<>();
+        List<Customer> all = new AbstractList<>() {
+            @Override
+            public Customer get(int i) {
+                foundDuringRebuild.addAll(ids(index.search("ana", 10)));
+                return customer(2L, "Anabel", "anabel@cafe.com");
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+
+        index.rebuild(all);
+
+        assertThat(foundDuringRebuild).containsExactly(1L);
+        assertThat(ids(index.search("ana", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void normalizesIndependentlyOfTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            index.put(customer(1L, "IRENE", "i1@cafe.com"));
+            assertThat(ids(index.search("irene", 10))).containsExactly(1L);
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    private static Customer customer(Long id, String name, String email) {
+        Customer customer = new Customer(name, email, null);
+        customer.setId(id);
+        return customer;
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
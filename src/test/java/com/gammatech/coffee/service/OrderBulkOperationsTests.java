@@ -0,0 +1,190 @@
+package com.gammatech.coffee.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.projection.OrderViewProjector;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderBulkOperationsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private Coffee coffee;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        coffee = coffeeRepository.save(new Coffee("Cafe cierre", 1.5, "cierre.jpg"));
+        customer = customerRepository.save(new Customer("Eva", "eva@cierre.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void updatesListedIdsWithSetBasedStatements() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(save(OrderStatus.SHIPPED, LocalDateTime.now()).getId());
+        }
+        Long delivered = save(OrderStatus.DELIVERED, LocalDateTime.now()).getId();
+        orderViewProjector.rebuild();
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(delivered);
+        requested.add(-1L);
+
+        ObjectNode body = json.createObjectNode().put("status", "DELIVERED");
+        requested.forEach(body.putArray("ids")::add);
+        SqlStatementCounter.reset();
+        JsonNode result = send(body);
+
+        // select for update + update; sin cargar pedidos: la vista se lee y se actualiza en un lote por JDBC
+        assertThat(SqlStatementCounter.count()).isEqualTo(4);
+        assertThat(ids(result.get("transitioned"))).containsExactlyElementsOf(ids);
+        assertThat(ids(result.get("notTransitioned"))).containsExactly(delivered, -1L);
+        assertThat(orderRepository.findByOrderStatus(OrderStatus.DELIVERED, Sort.unsorted()))
+                .hasSize(21);
+        JsonNode document = json.readTree(orderViewRepository.findDocumentById(ids.get(0)).orElseThrow().json());
+        assertThat(document.get("orderStatus").asText()).isEqualTo("DELIVERED");
+        assertThat(orderViewRepository.findDocumentsByStatus(OrderStatus.DELIVERED)).hasSize(21);
+    }
+
+    @Test
+    void updatesByStatusAndAgeInChunks() throws Exception {
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < OrderBulkOperations.CHUNK_SIZE + 5; i++) {
+            old.add(save(OrderStatus.PROCESSING, LocalDateTime.now().minusHours(2)).getId());
+        }
+        Long recent = save(OrderStatus.PROCESSING, LocalDateTime.now()).getId();
+        Long pending = save(OrderStatus.PENDING, LocalDateTime.now().minusHours(2)).getId();
+
+        JsonNode result = send(json.createObjectNode()
+                .put("fromStatus", "PROCESSING").put("olderThan", "PT1H").put("status", "SHIPPED"));
+
+        assertThat(ids(result.get("transitioned"))).containsExactlyElementsOf(old);
+        assertThat(orderRepository.findById(recent).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.PROCESSING);
+        assertThat(orderRepository.findById(pending).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void regeneratesDocumentsThatWereNotUpToDate() throws Exception {
+        Long current = save(OrderStatus.SHIPPED, LocalDateTime.now()).getId();
+        Long stale = save(OrderStatus.SHIPPED, LocalDateTime.now()).getId();
+        Long missing = save(OrderStatus.SHIPPED, LocalDateTime.now()).getId();
+        orderViewProjector.rebuild();
+        // fila de una version anterior del pedido y pedido sin fila
+        jdbcTemplate.update("update order_view set order_version = order_version - 1, document = '{}'"
+                + " where order_id = ?", stale);
+        orderViewRepository.deleteById(missing);
+
+        ObjectNode body = json.createObjectNode().put("status", "DELIVERED");
+        body.putArray("ids").add(current).add(stale).add(missing);
+        send(body);
+
+        for (Long id : List.of(current, stale, missing)) {
+            long version = orderRepository.findById(id).orElseThrow().getVersion();
+            assertThat(orderViewRepository.findById(id).orElseThrow().getOrderVersion()).isEqualTo(version);
+            JsonNode document = json.readTree(orderViewRepository.findDocumentById(id).orElseThrow().json());
+            assertThat(document.get("orderStatus").asText()).isEqualTo("DELIVERED");
+            assertThat(document.get("items")).hasSize(1);
+        }
+    }
+
+    @Test
+    void rejectsBackwardTransitionsAndAmbiguousRequests() throws Exception {
+        mockMvc.perform(patch("/api/orders/status").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromStatus\": \"DELIVERED\", \"status\": \"PENDING\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/orders/status").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [1], \"fromStatus\": \"PENDING\", \"status\": \"PROCESSING\"}"))
+                .andExpect(status().isBadRequest());
+        // PROCESSING solo al reclamarlo un puesto
+        mockMvc.perform(patch("/api/orders/status").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromStatus\": \"PENDING\", \"status\": \"PROCESSING\"}"))
+                .andExpect(status().isBadRequest());
+
+        // tambien de uno en uno
+        Long delivered = save(OrderStatus.DELIVERED, LocalDateTime.now()).getId();
+        mockMvc.perform(patch("/api/orders/{id}/status", delivered).param("status", "PENDING"))
+                .andExpect(status().isBadRequest());
+        assertThat(orderRepository.findById(delivered).orElseThrow().getOrderStatus())
+                .isEqualTo(OrderStatus.DELIVERED);
+    }
+
+    // METODOS
+
+    private JsonNode send(JsonNode body) throws Exception {
+        String response = mockMvc.perform(patch("/api/orders/status")
+                .contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return json.readTree(response);
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(id -> ids.add(id.asLong()));
+        return ids;
+    }
+
+    private Order save(OrderStatus status, LocalDateTime date) {
+        Order order = new Order(customer, date, new ArrayList<>());
+        order.setOrderStatus(status);
+        OrderItem item = new OrderItem(order, coffee, 1);
+        item.setSubtotal(item.calculateSubtotal());
+        order.getItems().add(item);
+        order.setTotal(order.calculateTotal());
+        return orderRepository.save(order);
+    }
+}
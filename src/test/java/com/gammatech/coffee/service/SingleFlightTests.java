@@ -0,0 +1,110 @@
+package com.gammatech.coffee.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.gammatech.coffee.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallsForTheSameKeyShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.load(7L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "cafe-7";
+        }), release);
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("cafe-7");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("coffee.singleflight.calls").tag("outcome", "coalesced").counter().count())
+                .isEqualTo(CALLERS - 1);
+        assertThat(meterRegistry.get("coffee.singleflight.coalescing_ratio").gauge().value())
+                .isEqualTo((CALLERS - 1) / (double) CALLERS);
+    }
+
+    @Test
+    void followersReceiveTheLeaderException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.load(9L, () -> {
+            await(release);
+            throw new ResourceNotFoundException("Cafe  con el id '%s' no encontrado", 9L);
+        }), release);
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+        // la llamada fallida no se queda registrada
+        assertThat(singleFlight.load(9L, () -> "cafe-9")).isEqualTo("cafe-9");
+    }
+
+    @Test
+    void sequentialCallsAndDistinctKeysAreNotCoalesced() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load(1L, () -> "a" + loads.incrementAndGet());
+        singleFlight.load(1L, () -> "a" + loads.incrementAndGet());
+        singleFlight.load(2L, () -> "b" + loads.incrementAndGet());
+
+        assertThat(loads).hasValue(3);
+        assertThat(singleFlight.coalescingRatio()).isZero();
+    }
+
+    // lanza CALLERS llamadas y libera al lider cuando todas estan esperando
+    private List<Future<String>> callConcurrently(Callable<String> call, CountDownLatch release)
+            throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(call));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (calls() < CALLERS && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+        }
+        return results;
+    }
+
+    private double calls() {
+        return meterRegistry.get("coffee.singleflight.calls").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gammatech.coffee.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.service.CoffeeService;
+import com.gammatech.coffee.service.CustomerService;
+import com.gammatech.coffee.service.OrderService;
+
+// Tres bases de datos H2 en memoria: spring.datasource (shard 0) y dos shards adicionales
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded_0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "coffee.sharding.enabled=true",
+        "coffee.sharding.shards[0].url=jdbc:h2:mem:sharded_1;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "coffee.sharding.shards[0].username=sa",
+        "coffee.sharding.shards[1].url=jdbc:h2:mem:sharded_2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "coffee.sharding.shards[1].username=sa"
+})
+class ShardedOrderTests {
+
+    private static final int CUSTOMERS = 12;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CoffeeService coffeeService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ShardDataSources shardDataSources;
+    @Autowired
+    private ReferenceDataReplicator replicator;
+
+    @Test
+    void ordersLiveOnTheShardOfTheirCustomer() {
+        Coffee espresso = coffeeService.createCoffee(new Coffee("Espresso shard", 1.5, "espresso.jpg"));
+        Coffee latte = coffeeService.createCoffee(new Coffee("Latte shard", 2.5, "latte.jpg"));
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(customerService.createCustomer(new Customer("Cliente " + i, "shard" + i + "@cafe.com", null)));
+        }
+
+        // datos de referencia replicados en todos los shards
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            assertThat(count(shard, "select count(*) from coffee where id in (?, ?)", espresso.getId(), latte.getId()))
+                    .isEqualTo(2);
+            assertThat(count(shard, "select count(*) from customer where email like 'shard%@cafe.com'"))
+                    .isEqualTo(CUSTOMERS);
+        }
+
+        List<Order> created = new ArrayList<>();
+        Set<Integer> usedShards = new HashSet<>();
+        for (Customer customer : customers) {
+            Order order = orderService.createOrder(request(customer, espresso, latte));
+            created.add(order);
+            int shard = shardRouter.shardOf(customer.getId());
+            usedShards.add(shard);
+            for (int other = 0; other < shardRouter.shardCount(); other++) {
+                assertThat(count(other, "select count(*) from orders where id = ?", order.getId()))
+                        .isEqualTo(other == shard ? 1 : 0);
+            }
+        }
+        assertThat(usedShards).hasSizeGreaterThan(1);
+        assertThat(created).extracting(Order::getId).doesNotHaveDuplicates();
+
+        // scatter-gather: todos los pedidos, ordenados por id
+        List<Long> createdIds = created.stream().map(Order::getId).toList();
+        List<Order> all = orderService.getAllOrders();
+        assertThat(all).extracting(Order::getId)
+                .containsAll(createdIds)
+                .isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(orderService.getOrdersByStatus(OrderStatus.PENDING)).extracting(Order::getId)
+                .containsAll(createdIds)
+                .isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(orderService.getOrderById(createdIds.get(0)).getItems()).extracting(item -> item.getCoffee().getName())
+                .containsExactlyInAnyOrder("Espresso shard", "Latte shard");
+
+        Customer customer = customers.stream()
+                .filter(c -> shardRouter.shardOf(c.getId()) != 0)
+                .findFirst().orElseThrow();
+        int shard = shardRouter.shardOf(customer.getId());
+        Order order = created.get(customers.indexOf(customer));
+        assertThat(orderService.getOrdersByCustomer(customer.getId())).extracting(Order::getId)
+                .containsExactly(order.getId());
+
+        // escrituras por id de pedido sobre un shard distinto del 0
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PROCESSING);
+        assertThat(count(shard, "select count(*) from orders where id = ? and order_status = ?", order.getId(),
+                OrderStatus.PROCESSING.ordinal())).isEqualTo(1);
+        assertThat(orderService.getOrderById(order.getId()).getOrderStatus()).isEqualTo(OrderStatus.PROCESSING);
+
+        orderService.deleteOrder(order.getId());
+        assertThat(count(shard, "select count(*) from orders where id = ?", order.getId())).isZero();
+        assertThat(orderService.getAllOrders()).hasSize(all.size() - 1);
+    }
+
+    @Test
+    void ordersCannotMoveToACustomerOfAnotherShard() {
+        Coffee mocha = coffeeService.createCoffee(new Coffee("Mocha shard", 2.8, "mocha.jpg"));
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; customers.stream().map(c -> shardRouter.shardOf(c.getId())).distinct().count() < 2; i++) {
+            customers.add(customerService.createCustomer(new Customer("Movil " + i, "movil" + i + "@cafe.com", null)));
+        }
+        Customer owner = customers.get(0);
+        Customer elsewhere = customers.get(customers.size() - 1);
+        Order order = orderService.createOrder(request(owner, mocha));
+
+        assertThatThrownBy(() -> orderService.updateOrder(order.getId(), request(elsewhere, mocha)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reconciliationRepairsReplicasThatMissedAChange() {
+        Coffee coffee = coffeeService.createCoffee(new Coffee("Flat white shard", 2.2, "flat.jpg"));
+        Customer customer = customerService.createCustomer(new Customer("Reparar", "reparar@cafe.com", null));
+        JdbcTemplate replica = new JdbcTemplate(shardDataSources.get(1));
+        // replicacion perdida: un cambio de precio, un email y un borrado que no llegaron al shard 1
+        replica.update("update coffee set price = 9.9 where id = ?", coffee.getId());
+        replica.update("update customer set email = 'viejo@cafe.com' where id = ?", customer.getId());
+        replica.update("insert into coffee (id, name, price, image_url) values (?, 'Borrado shard', 1.0, null)",
+                coffee.getId() + 1_000_000);
+
+        replicator.reconcile();
+
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            assertThat(count(shard, "select count(*) from coffee where id = ? and price = 2.2", coffee.getId()))
+                    .isEqualTo(1);
+            assertThat(count(shard, "select count(*) from customer where id = ? and email = 'reparar@cafe.com'",
+                    customer.getId())).isEqualTo(1);
+            assertThat(count(shard, "select count(*) from coffee where name = 'Borrado shard'")).isZero();
+        }
+    }
+
+    // METODOS
+
+    private long count(int shard, String sql, Object... args) {
+        return new JdbcTemplate(shardDataSources.get(shard)).queryForObject(sql, Long.class, args);
+    }
+
+    private static Order request(Customer customer, Coffee... coffees) {
+        Customer customerRef = new Customer();
+        customerRef.setId(customer.getId());
+        Order order = new Order(customerRef, null, new ArrayList<>());
+        for (Coffee coffee : coffees) {
+            Coffee coffeeRef = new Coffee();
+            coffeeRef.setId(coffee.getId());
+            order.getItems().add(new OrderItem(order, coffeeRef, 2));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,174 @@
+package com.gammatech.coffee.stations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.servlet.AsyncListener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.service.OrderService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StationSchedulerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StationScheduler stationScheduler;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private final List<Coffee> coffees = new ArrayList<>();
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            coffees.add(coffeeRepository.save(new Coffee("Cafe barra " + i, 1.5, "barra.jpg")));
+        }
+        customer = customerRepository.save(new Customer("Leo", "leo@barra.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stationScheduler.getStations().forEach(station -> stationScheduler.unregister(station.id()));
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void assignsOldestOrdersFirstWeightingItemCount() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Long oldest = save(now.minusMinutes(10), 1).getId();
+        Long twoMinutes = save(now.minusMinutes(2), 1).getId();
+        // mas reciente pero con 4 cafes: cuenta como 2 minutos de espera extra
+        Long largeRecent = save(now.minusMinutes(1), 4).getId();
+
+        mockMvc.perform(put("/api/stations/barra-1")).andExpect(status().isOk());
+
+        List<Long> assigned = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = next("barra-1");
+            assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PROCESSING);
+            assigned.add(order.getId());
+        }
+        assertThat(assigned).containsExactly(oldest, largeRecent, twoMinutes);
+        assertThat(orderRepository.findById(oldest).orElseThrow().getStationId()).isEqualTo("barra-1");
+    }
+
+    @Test
+    void competingStationsNeverReceiveTheSameOrder() throws Exception {
+        List<Long> pending = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pending.add(save(LocalDateTime.now().minusMinutes(i), 1).getId());
+        }
+        stationScheduler.register("barra-a");
+        stationScheduler.register("barra-b");
+        stationScheduler.register("barra-c");
+
+        List<Future<Order>> results = new ArrayList<>();
+        try (ExecutorService polls = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < pending.size(); i++) {
+                String station = "barra-" + (char) ('a' + i % 3);
+                results.add(polls.submit(() -> next(station)));
+            }
+        }
+        List<Long> assigned = new ArrayList<>();
+        for (Future<Order> result : results) {
+            assigned.add(result.get().getId());
+        }
+        assertThat(assigned).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(pending);
+        assertThat(orderRepository.findAll()).allSatisfy(order -> {
+            assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PROCESSING);
+            assertThat(order.getStationId()).startsWith("barra-");
+        });
+        assertThat(stationScheduler.getStations()).extracting(station -> station.assigned()).containsOnly(4L);
+    }
+
+    @Test
+    void waitingStationGetsNewOrderOrNoContentOnTimeout() throws Exception {
+        stationScheduler.register("barra-1");
+
+        MvcResult idle = mockMvc.perform(get("/api/stations/barra-1/next").param("timeout", "PT10S"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        for (AsyncListener listener : ((MockAsyncContext) idle.getRequest().getAsyncContext()).getListeners()) {
+            listener.onTimeout(null);
+        }
+        mockMvc.perform(asyncDispatch(idle)).andExpect(status().isNoContent());
+
+        MvcResult waiting = mockMvc.perform(get("/api/stations/barra-1/next"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Order request = new Order(customer, null, List.of(new OrderItem(null, coffees.get(0), 2)));
+        Long created = orderService.createOrder(request).getId();
+        mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk());
+        assertThat(orderRepository.findById(created).orElseThrow().getStationId()).isEqualTo("barra-1");
+
+        mockMvc.perform(get("/api/stations/desconocido/next")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/stations/barra-1/next").param("timeout", "PT5M")).andExpect(status().isBadRequest());
+    }
+
+    // METODOS
+
+    @SuppressWarnings("unchecked")
+    private Order next(String station) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/stations/" + station + "/next"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return ((ResponseEntity<Order>) result.getAsyncResult(5000)).getBody();
+    }
+
+    private Order save(LocalDateTime date, int items) {
+        Order order = new Order(customer, date, new ArrayList<>());
+        order.setOrderStatus(OrderStatus.PENDING);
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem(order, coffees.get(i), 1);
+            item.setSubtotal(item.calculateSubtotal());
+            order.getItems().add(item);
+        }
+        order.setTotal(order.calculateTotal());
+        return orderRepository.save(order);
+    }
+}
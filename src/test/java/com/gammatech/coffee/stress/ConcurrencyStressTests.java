@@ -0,0 +1,225 @@
+package com.gammatech.coffee.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+
+/*
+ * Pruebas de concurrencia contra H2 a traves de MockMvc: escrituras simultaneas sobre pedidos y sobre
+ * los campos unicos. Tamano con -Dstress.threads y -Dstress.operations; el rendimiento se imprime con [stress].
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrencyStressTests {
+
+    private static final int COFFEES = 12;
+    private static final int CUSTOMERS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final List<Coffee> coffees = new ArrayList<>();
+    private final List<Customer> customers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < COFFEES; i++) {
+            coffees.add(coffeeRepository.save(new Coffee("Cafe estres " + i, 1.1 + i * 0.35, "estres.jpg")));
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(customerRepository.save(new Customer("Cliente " + i, "estres-" + i + "@cafe.com", null)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentOrderCreationKeepsTotalsConsistent() throws Exception {
+        StressRun.Result result = StressRun.run("POST /api/orders", StressRun.OPERATIONS, i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            ObjectNode order = json.createObjectNode();
+            order.putObject("customer").put("id", customers.get(random.nextInt(CUSTOMERS)).getId());
+            ArrayNode items = order.putArray("items");
+            int first = random.nextInt(COFFEES);
+            for (int line = 0; line < 1 + random.nextInt(4); line++) {
+                ObjectNode item = items.addObject();
+                item.putObject("coffee").put("id", coffees.get((first + line) % COFFEES).getId());
+                item.put("quantity", 1 + random.nextInt(3));
+            }
+            return status(post("/api/orders"), order.toString());
+        });
+
+        assertThat(result.statuses()).containsOnlyKeys(201);
+        List<Order> orders = orderRepository.findByOrderStatus(OrderStatus.PENDING, Sort.unsorted());
+        assertThat(orders).hasSize(StressRun.OPERATIONS);
+        assertThat(orders).allSatisfy(this::assertTotals);
+    }
+
+    @Test
+    void concurrentItemChangesOnTheSameOrderAreNotLost() throws Exception {
+        Order order = orderRepository.save(order(customers.get(0), coffees.get(0), 1));
+
+        // cada llamada anade un cafe distinto o cambia la cantidad de uno ya anadido
+        int operations = Math.max(COFFEES, StressRun.OPERATIONS / 4);
+        StressRun.Result result = StressRun.run("PATCH /api/orders/{id}/items", operations, i -> {
+            ArrayNode changes = json.createArrayNode();
+            ObjectNode change = changes.addObject();
+            change.putObject("coffee").put("id", coffees.get(1 + i % (COFFEES - 1)).getId());
+            change.put("quantity", 1 + i / (COFFEES - 1));
+            return status(patch("/api/orders/" + order.getId() + "/items"), changes.toString());
+        });
+
+        assertThat(result.statuses()).containsOnlyKeys(200);
+        Order updated = orderRepository.findFullById(order.getId()).orElseThrow();
+        assertThat(updated.getItems()).hasSize(COFFEES);
+        assertTotals(updated);
+    }
+
+    @Test
+    void concurrentStatusUpdatesOnTheSameOrderKeepItsItems() throws Exception {
+        Order order = orderRepository.save(order(customers.get(0), coffees.get(0), 2));
+        double total = order.getTotal();
+        OrderStatus[] statuses = OrderStatus.values();
+
+        StressRun.Result result = StressRun.run("PATCH /api/orders/{id}/status", StressRun.OPERATIONS / 2,
+                i -> status(patch("/api/orders/" + order.getId() + "/status")
+                        .param("status", statuses[i % statuses.length].name()), null));
+
+        // solo hacia delante: el resto se rechaza y el pedido acaba entregado
+        assertThat(result.statuses()).containsOnlyKeys(200, 400);
+        Order updated = orderRepository.findFullById(order.getId()).orElseThrow();
+        assertThat(updated.getOrderStatus()).isEqualTo(OrderStatus.DELIVERED);
+        // ningun cambio aceptado se pierde: cada 200 sube la version exactamente una vez
+        assertThat(updated.getVersion()).isEqualTo(order.getVersion() + result.count(200));
+        assertThat(updated.getItems()).hasSize(1);
+        assertThat(updated.getTotal()).isEqualTo(total);
+        assertTotals(updated);
+    }
+
+    @Test
+    void concurrentDuplicateCoffeeNamesCreateOneEach() throws Exception {
+        int names = 4;
+        StressRun.Result result = StressRun.run("POST /api/coffees (duplicados)", StressRun.THREADS * names, i -> {
+            ObjectNode coffee = json.createObjectNode()
+                    .put("name", "Duplicado " + i % names)
+                    .put("price", 2.0)
+                    .put("imageUrl", "duplicado.jpg");
+            return status(post("/api/coffees"), coffee.toString());
+        });
+
+        assertThat(result.statuses()).containsOnlyKeys(201, 409);
+        assertThat(result.count(201)).isEqualTo(names);
+        for (int n = 0; n < names; n++) {
+            assertThat(coffeeRepository.existsByName("Duplicado " + n)).isTrue();
+        }
+        assertThat(coffeeRepository.count()).isEqualTo(COFFEES + names);
+    }
+
+    @Test
+    void concurrentDuplicateEmailsCreateOneEach() throws Exception {
+        int emails = 4;
+        StressRun.Result result = StressRun.run("POST /api/customers (duplicados)", StressRun.THREADS * emails, i -> {
+            ObjectNode customer = json.createObjectNode()
+                    .put("name", "Cliente duplicado " + i)
+                    .put("email", "duplicado-" + i % emails + "@cafe.com");
+            return status(post("/api/customers"), customer.toString());
+        });
+
+        assertThat(result.statuses()).containsOnlyKeys(201, 409);
+        assertThat(result.count(201)).isEqualTo(emails);
+        assertThat(customerRepository.count()).isEqualTo(CUSTOMERS + emails);
+    }
+
+    @Test
+    void concurrentEmailChangesToTheSameAddressLeaveOneOwner() throws Exception {
+        String shared = "compartido@cafe.com";
+        StressRun.Result result = StressRun.run("PATCH /api/customers/{id}/email", CUSTOMERS,
+                i -> status(patch("/api/customers/" + customers.get(i).getId() + "/email").param("email", shared), null));
+
+        assertThat(result.statuses()).containsOnlyKeys(200, 409);
+        assertThat(result.count(200)).isEqualTo(1);
+        Set<String> emails = new HashSet<>();
+        customerRepository.findAll().forEach(customer -> assertThat(emails.add(customer.getEmail())).isTrue());
+        assertThat(customerRepository.findByEmail(shared)).isNotNull();
+    }
+
+    // METODOS
+
+    private int status(MockHttpServletRequestBuilder request, String body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(body);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private void assertTotals(Order order) {
+        Map<Long, Double> prices = new HashMap<>();
+        coffees.forEach(coffee -> prices.put(coffee.getId(), coffee.getPrice()));
+        double sum = 0;
+        for (OrderItem item : order.getItems()) {
+            assertThat(item.getSubtotal()).isCloseTo(prices.get(item.getCoffee().getId()) * item.getQuantity(),
+                    within(1e-9));
+            sum += item.getSubtotal();
+        }
+        assertThat(order.getTotal()).as("total del pedido %s", order.getId()).isCloseTo(sum, within(1e-9));
+    }
+
+    private static Order order(Customer customer, Coffee coffee, int quantity) {
+        Order order = new Order(customer, LocalDateTime.now(), new ArrayList<>());
+        order.setOrderStatus(OrderStatus.PENDING);
+        OrderItem item = new OrderItem(order, coffee, quantity);
+        item.setSubtotal(item.calculateSubtotal());
+        order.getItems().add(item);
+        order.setTotal(order.calculateTotal());
+        return order;
+    }
+}
@@ -0,0 +1,75 @@
+package com.gammatech.coffee.stress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lanza operations llamadas repartidas entre threads hilos que arrancan a la vez y cuenta los codigos HTTP.
+ * Al terminar imprime una linea con el rendimiento para comparar entre ejecuciones de CI.
+ */
+final class StressRun {
+
+    static final int THREADS = Integer.getInteger("stress.threads", 16);
+    static final int OPERATIONS = Integer.getInteger("stress.operations", 400);
+
+    @FunctionalInterface
+    interface Operation {
+        // devuelve el codigo HTTP de la respuesta
+        int call(int index) throws Exception;
+    }
+
+    record Result(String name, int operations, double seconds, Map<Integer, Integer> statuses) {
+
+        int count(int status) {
+            return statuses.getOrDefault(status, 0);
+        }
+
+        double throughput() {
+            return operations / seconds;
+        }
+    }
+
+    private StressRun() {
+    }
+
+    static Result run(String name, int operations, Operation operation) throws Exception {
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        long elapsed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < operations; i = next.getAndIncrement()) {
+                        statuses.computeIfAbsent(operation.call(i), status -> new LongAdder()).increment();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        Map<Integer, Integer> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.intValue()));
+        Result result = new Result(name, operations, elapsed / 1_000_000_000.0, counts);
+        System.out.printf(Locale.ROOT, "[stress] %-32s %6d ops %3d hilos %8.2f s %10.1f ops/s  %s%n", name, operations,
+                THREADS, result.seconds(), result.throughput(), counts);
+        return result;
+    }
+}
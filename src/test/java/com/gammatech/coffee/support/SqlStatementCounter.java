@@ -0,0 +1,75 @@
+package com.gammatech.coffee.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/*
+ * Cuenta las sentencias SQL que llegan a la base de datos: envuelve el DataSource del contexto de pruebas, asi que
+ * entran tanto las de Hibernate como las de JdbcTemplate (order_view, cambios en bloque...).
+ * Un executeBatch cuenta como una sentencia (un viaje a la base de datos).
+ * Solo se cuentan las del hilo que llamo a reset(): el sondeo de avisos y las demas tareas en segundo plano no suman.
+ */
+@Component
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static volatile Thread counted;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (method, result) -> method.getName().equals("getConnection")
+                    ? proxy(Connection.class, (Connection) result, SqlStatementCounter::statements)
+                    : result);
+        }
+        return bean;
+    }
+
+    public static void reset() {
+        counted = Thread.currentThread();
+        COUNT.set(0);
+    }
+
+    public static int count() {
+        return COUNT.get();
+    }
+
+    // METODOS
+
+    private static Object statements(Method method, Object result) {
+        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return proxy(method.getReturnType(), statement, (call, value) -> {
+                if (call.getName().startsWith("execute") && Thread.currentThread() == counted) {
+                    COUNT.incrementAndGet();
+                }
+                return value;
+            });
+        }
+        return result;
+    }
+
+    private static Object proxy(Class<?> type, Object target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return afterCall.apply(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object result) throws Throwable;
+    }
+}
@@ -0,0 +1,124 @@
+package com.gammatech.coffee.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.throttling.ThrottlingProperties.Route;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ThrottlingFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsWith429OnceTheClientBucketIsEmpty() throws Exception {
+        ThrottlingFilter filter = filter(8);
+
+        assertThat(post(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(post(filter, "10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = post(filter, "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+        // cada peticion lleva una X-API-Key distinta: no le da un cubo nuevo
+        // otro cliente tiene su propio cubo
+        assertThat(post(filter, "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(decisions("rate_limited")).isEqualTo(1);
+        assertThat(decisions("allowed")).isEqualTo(3);
+    }
+
+    @Test
+    void boundsTheTrackedClientsWithoutScanning() {
+        RateLimiter rateLimiter = new RateLimiter(100, () -> 0L);
+        Route route = filterRoute();
+
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.acquire(route, "10.1." + i / 256 + "." + i % 256);
+        }
+
+        assertThat(rateLimiter.trackedClients()).isEqualTo(100);
+        // el cliente activo sigue con su cubo: es el usado mas recientemente
+        rateLimiter.acquire(route, "10.0.0.1");
+        rateLimiter.acquire(route, "10.0.0.1");
+        for (int i = 0; i < 50; i++) {
+            rateLimiter.acquire(route, "10.2.0." + i);
+        }
+        assertThat(rateLimiter.acquire(route, "10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void keepsOneBucketPerMethodOnTheSamePattern() {
+        RateLimiter rateLimiter = new RateLimiter(100, () -> 0L);
+        Route post = filterRoute();
+        Route get = filterRoute();
+        get.setMethod("GET");
+
+        rateLimiter.acquire(post, "10.0.0.1");
+        rateLimiter.acquire(post, "10.0.0.1");
+
+        assertThat(rateLimiter.acquire(post, "10.0.0.1")).isPositive();
+        assertThat(rateLimiter.acquire(get, "10.0.0.1")).isZero();
+    }
+
+    @Test
+    void shedsWith503WhenNoConcurrencyIsLeft() throws Exception {
+        ThrottlingFilter filter = filter(0);
+
+        MockHttpServletResponse response = post(filter, "10.0.0.1");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(decisions("shed")).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresRoutesThatAreNotConfigured() throws Exception {
+        ThrottlingFilter filter = filter(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private ThrottlingFilter filter(int maxConcurrentRequests) {
+        ThrottlingProperties properties = new ThrottlingProperties();
+        properties.setMaxConcurrentRequests(maxConcurrentRequests);
+        properties.setRoutes(List.of(filterRoute()));
+        return new ThrottlingFilter(properties, meterRegistry, new ObjectMapper());
+    }
+
+    private static Route filterRoute() {
+        Route route = new Route();
+        route.setMethod("POST");
+        route.setPattern("/api/orders");
+        route.setCapacity(2);
+        route.setRefillPerSecond(0.01);
+        return route;
+    }
+
+    private MockHttpServletResponse post(ThrottlingFilter filter, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-API-Key", UUID.randomUUID().toString());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double decisions(String outcome) {
+        return meterRegistry.find("coffee.throttling.decisions").tag("outcome", outcome).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+}
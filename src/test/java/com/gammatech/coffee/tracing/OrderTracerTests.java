@@ -0,0 +1,134 @@
+package com.gammatech.coffee.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.service.OrderService;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@SpringBootTest
+class OrderTracerTests {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void recordsOrderPhasesAndRepositoryCallsWithTheCheckedInProfile() throws Exception {
+        Coffee latte = coffeeRepository.save(new Coffee("Latte traza", 2.0, "latte.jpg"));
+        Coffee mocha = coffeeRepository.save(new Coffee("Mocha traza", 2.5, "mocha.jpg"));
+        Customer customer = customerRepository.save(new Customer("Noa", "noa@traza.com", null));
+
+        Path dump = tempDir.resolve("pedidos.jfr");
+        Long orderId;
+        try (Recording recording = new Recording(Configuration.create(Path.of("jfr", "coffee-orders.jfc")))) {
+            recording.enable("com.gammatech.coffee.RepositoryCall").withoutThreshold();
+            recording.start();
+            orderId = orderService.createOrder(new Order(customer, null, List.of(
+                    new OrderItem(null, latte, 1), new OrderItem(null, mocha, 2)))).getId();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> phases = new ArrayList<>();
+        List<RecordedEvent> calls = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            switch (event.getEventType().getName()) {
+                case "com.gammatech.coffee.OrderPhase" -> phases.add(event);
+                case "com.gammatech.coffee.RepositoryCall" -> calls.add(event);
+                default -> { }
+            }
+        }
+        assertThat(phases).extracting(event -> event.getString("phase"))
+                .containsExactly("validateCustomer", "validateItems", "calculateTotal", "save", "createOrder");
+        assertThat(phases).allSatisfy(event -> assertThat(event.getString("operation")).isEqualTo("createOrder"));
+        RecordedEvent root = phases.get(phases.size() - 1);
+        assertThat(root.getLong("orderId")).isEqualTo(orderId);
+        assertThat(root.getInt("items")).isEqualTo(2);
+        assertThat(root.getDuration()).isPositive();
+
+        assertThat(calls).extracting(event -> event.getString("repository") + "." + event.getString("method"))
+                .contains("CustomerRepository.findById", "CoffeeRepository.findById", "OrderRepository.saveAndFlush");
+        assertThat(calls).filteredOn(event -> "saveAndFlush".equals(event.getString("method")))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getString("operation")).isEqualTo("createOrder"));
+    }
+
+    @Test
+    void writesNestedSpansToFileWhenEnabled() throws Exception {
+        TracingProperties properties = new TracingProperties();
+        properties.setSpansEnabled(true);
+        properties.setSpansFile(tempDir.resolve("spans.jsonl"));
+        OrderTracer tracer = new OrderTracer(properties);
+
+        try (OrderTracer.Phase operation = tracer.phase("updateOrder").orderId(7L)) {
+            try (OrderTracer.Phase phase = tracer.phase("mergeItems")) {
+                phase.items(3);
+            }
+        }
+        tracer.destroy();
+
+        ObjectMapper json = new ObjectMapper();
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(properties.getSpansFile())) {
+            spans.add(json.readTree(line));
+        }
+        assertThat(spans).extracting(span -> span.get("name").asText()).containsExactly("mergeItems", "updateOrder");
+        JsonNode child = spans.get(0);
+        JsonNode parent = spans.get(1);
+        assertThat(child.get("traceId").asText()).hasSize(32).isEqualTo(parent.get("traceId").asText());
+        assertThat(child.get("parentSpanId").asText()).isEqualTo(parent.get("spanId").asText());
+        assertThat(parent.has("parentSpanId")).isFalse();
+        assertThat(child.get("attributes").get("order.id").asLong()).isEqualTo(7);
+        assertThat(child.get("attributes").get("order.items").asInt()).isEqualTo(3);
+        assertThat(child.get("endTimeUnixNano").asLong()).isGreaterThanOrEqualTo(child.get("startTimeUnixNano").asLong());
+    }
+
+    @Test
+    void phasesAreNoOpsWithoutRecordingOrSpans() {
+        OrderTracer tracer = new OrderTracer(new TracingProperties());
+        assertThat(tracer.phase("createOrder")).isSameAs(OrderTracer.Phase.NOOP);
+    }
+}
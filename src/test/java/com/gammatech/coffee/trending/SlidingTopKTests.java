@@ -0,0 +1,68 @@
+package com.gammatech.coffee.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gammatech.coffee.responses.TrendingCoffee;
+
+class SlidingTopKTests {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Test
+    void findsHeavyHittersAmongManyRareCoffeesWithFixedCounters() {
+        SlidingTopK window = new SlidingTopK(Duration.ofMinutes(15), 15, 16, 5);
+        Random random = new Random(42);
+        long now = 100 * MINUTE;
+        // 3 cafes muy vendidos y 5000 cafes distintos con una unidad cada uno
+        for (int i = 0; i < 5000; i++) {
+            window.add(1000 + i, "raro-" + i, 1, now - random.nextInt(10) * MINUTE, now);
+            if (i % 10 == 0) {
+                window.add(1, "cortado", 3, now, now);
+                window.add(2, "americano", 2, now, now);
+                window.add(3, "latte", 1, now, now);
+            }
+        }
+
+        List<TrendingCoffee> top = window.top(3, now);
+
+        assertThat(top).extracting(TrendingCoffee::coffeeId).containsExactly(1L, 2L, 3L);
+        // nunca se queda corto y el error declarado acota el exceso
+        assertThat(top.get(0).units()).isGreaterThanOrEqualTo(1500);
+        assertThat(top.get(0).units() - top.get(0).maxOverestimate()).isLessThanOrEqualTo(1500);
+    }
+
+    @Test
+    void salesLeaveTheWindowAsTimeAdvances() {
+        SlidingTopK window = new SlidingTopK(Duration.ofMinutes(15), 15, 8, 5);
+        long start = 1_000 * MINUTE;
+        window.add(1, "cortado", 10, start, start);
+        window.add(2, "americano", 1, start + 10 * MINUTE, start + 10 * MINUTE);
+
+        assertThat(window.top(5, start + 10 * MINUTE)).extracting(TrendingCoffee::coffeeId).containsExactly(1L, 2L);
+        assertThat(window.top(5, start + 15 * MINUTE)).extracting(TrendingCoffee::coffeeId).containsExactly(2L);
+        assertThat(window.top(5, start + 30 * MINUTE)).isEmpty();
+
+        // ventas ya fuera de la ventana no cuentan
+        window.add(3, "latte", 5, start, start + 30 * MINUTE);
+        assertThat(window.top(5, start + 30 * MINUTE)).isEmpty();
+    }
+
+    @Test
+    void readsReuseTheRankingUntilTheNextWrite() {
+        SlidingTopK window = new SlidingTopK(Duration.ofHours(1), 12, 8, 5);
+        long now = 500 * MINUTE;
+        window.add(1, "cortado", 2, now, now);
+        List<TrendingCoffee> first = window.top(5, now);
+
+        assertThat(window.top(5, now + 1)).isSameAs(first);
+
+        window.add(1, "cortado", 1, now, now);
+        assertThat(window.top(5, now).get(0).units()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,144 @@
+package com.gammatech.coffee.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gammatech.coffee.models.Coffee;
+import com.gammatech.coffee.models.Customer;
+import com.gammatech.coffee.models.Order;
+import com.gammatech.coffee.models.OrderItem;
+import com.gammatech.coffee.models.OrderStatus;
+import com.gammatech.coffee.repository.CoffeeRepository;
+import com.gammatech.coffee.repository.CustomerRepository;
+import com.gammatech.coffee.repository.OrderRepository;
+import com.gammatech.coffee.repository.OrderViewRepository;
+import com.gammatech.coffee.support.SqlStatementCounter;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TrendingCoffeesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TrendingCoffees trendingCoffees;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    @Autowired
+    private CoffeeRepository coffeeRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    // el ranking es del contexto compartido: se parte de lo que hay en la base de datos (nada)
+    @BeforeEach
+    void setUp() {
+        trendingCoffees.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        orderViewRepository.deleteAll();
+        coffeeRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void ordersFeedTheBoardWhichIsServedWithoutQueries() throws Exception {
+        Coffee cortado = coffeeRepository.save(new Coffee("Cortado ranking", 1.6, "cortado.jpg"));
+        Coffee latte = coffeeRepository.save(new Coffee("Latte ranking", 2.2, "latte.jpg"));
+        Customer customer = customerRepository.save(new Customer("Nora", "nora@ranking.com", null));
+
+        createOrder(customer, cortado, 1, latte, 2);
+        long orderId = createOrder(customer, cortado, 1, latte, 1).get("id").asLong();
+        // +3 cortados; bajar el latte de 1 a 0 no resta
+        mockMvc.perform(patch("/api/orders/{id}/items", orderId).contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"coffee\": {\"id\": %d}, \"quantity\": 4}, {\"coffee\": {\"id\": %d}, \"quantity\": 0}]"
+                        .formatted(cortado.getId(), latte.getId())))
+                .andExpect(status().isOk());
+
+        SqlStatementCounter.reset();
+        JsonNode board = trending("15m", 5);
+        assertThat(SqlStatementCounter.count()).isZero();
+
+        assertThat(board.get("window").asText()).isEqualTo("15m");
+        assertThat(board.get("coffees").get(0).get("name").asText()).isEqualTo("Cortado ranking");
+        assertThat(board.get("coffees").get(0).get("units").asLong()).isEqualTo(5);
+        assertThat(board.get("coffees").get(1).get("units").asLong()).isEqualTo(3);
+        assertThat(trending("1d", 1).get("coffees")).hasSize(1);
+    }
+
+    @Test
+    void rebuildLoadsRecentSalesIntoTheirWindows() throws Exception {
+        Coffee americano = coffeeRepository.save(new Coffee("Americano ranking", 1.4, "americano.jpg"));
+        Customer customer = customerRepository.save(new Customer("Iker", "iker@ranking.com", null));
+        save(customer, americano, 7, LocalDateTime.now().minusHours(3));
+        save(customer, americano, 100, LocalDateTime.now().minusDays(3));
+
+        trendingCoffees.rebuild();
+
+        assertThat(trending("15m", 5).get("coffees")).isEmpty();
+        JsonNode day = trending("1d", 5).get("coffees");
+        assertThat(day).hasSize(1);
+        assertThat(day.get(0).get("units").asLong()).isEqualTo(7);
+
+        mockMvc.perform(get("/api/coffees/trending").param("window", "1w")).andExpect(status().isBadRequest());
+    }
+
+    // METODOS
+
+    private JsonNode trending(String window, int limit) throws Exception {
+        String body = mockMvc.perform(get("/api/coffees/trending").param("window", window)
+                .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return json.readTree(body);
+    }
+
+    private JsonNode createOrder(Customer customer, Coffee first, int firstQuantity, Coffee second,
+            int secondQuantity) throws Exception {
+        ObjectNode order = json.createObjectNode();
+        order.putObject("customer").put("id", customer.getId());
+        ArrayNode items = order.putArray("items");
+        items.addObject().put("quantity", firstQuantity).putObject("coffee").put("id", first.getId());
+        items.addObject().put("quantity", secondQuantity).putObject("coffee").put("id", second.getId());
+        String body = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(order.toString()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return json.readTree(body);
+    }
+
+    private void save(Customer customer, Coffee coffee, int quantity, LocalDateTime date) {
+        Order order = new Order(customer, date, new ArrayList<>());
+        order.setOrderStatus(OrderStatus.DELIVERED);
+        OrderItem item = new OrderItem(order, coffee, quantity);
+        item.setSubtotal(item.calculateSubtotal());
+        order.getItems().add(item);
+        order.setTotal(order.calculateTotal());
+        orderRepository.save(order);
+    }
+}